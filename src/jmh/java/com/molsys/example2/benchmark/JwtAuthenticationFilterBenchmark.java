@@ -0,0 +1,103 @@
+package com.molsys.example2.benchmark;
+
+import com.molsys.example2.Entity.Role;
+import com.molsys.example2.Entity.User;
+import com.molsys.example2.Repository.UserRepository;
+import com.molsys.example2.security.JwtAuthenticationFilter;
+import com.molsys.example2.security.JwtService;
+import com.molsys.example2.security.UserPrincipalCache;
+import com.molsys.example2.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of {@link JwtAuthenticationFilter} with a stubbed {@link UserRepository}:
+ * the steady state where the token and principal are cached, and the first request of a
+ * token where both caches miss and the signature is verified.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET = "your_jwt_secret_key_here_make_it_long_and_secure_at_least_32_characters";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    private BenchmarkFilter filter;
+    private VerifiedTokenCache tokenCache;
+    private UserPrincipalCache principalCache;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    // Exposes doFilterInternal so the OncePerRequestFilter bookkeeping is not measured
+    static class BenchmarkFilter extends JwtAuthenticationFilter {
+        BenchmarkFilter(JwtService jwtService, VerifiedTokenCache tokenCache, UserPrincipalCache principalCache) {
+            super(jwtService, tokenCache, principalCache, new SimpleMeterRegistry());
+        }
+
+        void filter(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+            doFilterInternal(request, response, NO_OP_CHAIN);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = JwtValidationBenchmark.newJwtService(SECRET);
+        User user = User.builder().id(42L).email("bench@example.com").role(Role.USER).build();
+        tokenCache = new VerifiedTokenCache(10_000);
+        principalCache = new UserPrincipalCache(stubUserRepository(user), TransactionOperations.withoutTransaction(), 10_000, Duration.ofMinutes(5));
+        filter = new BenchmarkFilter(jwtService, tokenCache, principalCache);
+
+        request = new MockHttpServletRequest("GET", "/api/posts");
+        request.addHeader("Authorization", "Bearer " + jwtService.generateAccessToken(42L, Role.USER));
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Authentication cachedToken() throws Exception {
+        return authenticate();
+    }
+
+    @Benchmark
+    public Authentication uncachedToken() throws Exception {
+        tokenCache.invalidateAll();
+        principalCache.invalidate(42L);
+        return authenticate();
+    }
+
+    private Authentication authenticate() throws ServletException, IOException {
+        filter.filter(request, response);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    // Only findById is reached from the filter
+    private static UserRepository stubUserRepository(User user) {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findById" -> Optional.of(user);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "StubUserRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
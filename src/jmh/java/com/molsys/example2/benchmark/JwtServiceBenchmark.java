@@ -0,0 +1,52 @@
+package com.molsys.example2.benchmark;
+
+import com.molsys.example2.Entity.Role;
+import com.molsys.example2.security.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and validation cost of {@link JwtService} for both token kinds.
+ * Run with {@code -prof gc} (the profile's default) for allocation per token.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "your_jwt_secret_key_here_make_it_long_and_secure_at_least_32_characters";
+
+    private JwtService jwtService;
+    private String accessToken;
+    private String refreshToken;
+
+    @Setup
+    public void setUp() {
+        jwtService = JwtValidationBenchmark.newJwtService(SECRET);
+        accessToken = jwtService.generateAccessToken(42L, Role.USER);
+        refreshToken = jwtService.generateRefreshToken(42L);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return jwtService.generateAccessToken(42L, Role.USER);
+    }
+
+    @Benchmark
+    public String generateRefreshToken() {
+        return jwtService.generateRefreshToken(42L);
+    }
+
+    @Benchmark
+    public Jws<Claims> validateAccessToken() {
+        return jwtService.validateAccessToken(accessToken);
+    }
+
+    @Benchmark
+    public Jws<Claims> validateRefreshToken() {
+        return jwtService.validateRefreshToken(refreshToken);
+    }
+}
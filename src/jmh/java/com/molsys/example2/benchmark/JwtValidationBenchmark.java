@@ -0,0 +1,94 @@
+package com.molsys.example2.benchmark;
+
+import com.molsys.example2.Entity.Role;
+import com.molsys.example2.security.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access-token validation throughput: the original per-call key derivation
+ * versus the precomputed key ring now used by {@link JwtService}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class JwtValidationBenchmark {
+
+    private static final String SECRET = "your_jwt_secret_key_here_make_it_long_and_secure_at_least_32_characters";
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = newJwtService(SECRET);
+        token = jwtService.generateAccessToken(42L, Role.USER);
+    }
+
+    @Benchmark
+    public Jws<Claims> perCallKeyDerivation() {
+        return Jwts.parser().setSigningKey(legacyAccessTokenKey(SECRET)).parseClaimsJws(token);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Jws<Claims> perCallKeyDerivationContended() {
+        return perCallKeyDerivation();
+    }
+
+    @Benchmark
+    public Jws<Claims> keyRing() {
+        return jwtService.validateAccessToken(token);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Jws<Claims> keyRingContended() {
+        return jwtService.validateAccessToken(token);
+    }
+
+    static JwtService newJwtService(String secret) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "jwtSecret", secret);
+        ReflectionTestUtils.setField(service, "jwtPreviousSecrets", new String[0]);
+        ReflectionTestUtils.setField(service, "jwtExpirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(service, "jwtRefreshSecret", secret + "_refresh");
+        ReflectionTestUtils.setField(service, "jwtRefreshPreviousSecrets", new String[0]);
+        ReflectionTestUtils.setField(service, "jwtRefreshExpirationMs", 604_800_000L);
+        ReflectionTestUtils.invokeMethod(service, "initKeyRings");
+        return service;
+    }
+
+    // Verbatim copy of the derivation JwtService used to run on every call
+    private static SecretKey legacyAccessTokenKey(String originalKey) {
+        String base64Key;
+        try {
+            byte[] decodedKey = Base64.getDecoder().decode(originalKey);
+            if (decodedKey.length >= 32) {
+                base64Key = originalKey;
+            } else {
+                base64Key = pad(originalKey);
+            }
+        } catch (IllegalArgumentException e) {
+            base64Key = pad(originalKey);
+        }
+        return Keys.hmacShaKeyFor(Base64.getDecoder().decode(base64Key));
+    }
+
+    private static String pad(String originalKey) {
+        String paddedKey = originalKey;
+        while (paddedKey.getBytes(StandardCharsets.UTF_8).length < 32) {
+            paddedKey += originalKey;
+        }
+        return Base64.getEncoder().encodeToString(paddedKey.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,360 @@
+package com.molsys.example2.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.molsys.example2.Entity.Comment;
+import com.molsys.example2.Entity.Post;
+import com.molsys.example2.Entity.Role;
+import com.molsys.example2.Entity.User;
+import com.molsys.example2.Example2Application;
+import com.molsys.example2.Repository.PostRepository;
+import com.molsys.example2.Repository.UserRepository;
+import com.molsys.example2.search.PostSearchIndex;
+import com.molsys.example2.service.CommentService;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * End-to-end load test against the embedded test database. Boots the app on a random port,
+ * seeds users, posts and comments, then runs a closed-loop mix of register, login,
+ * refresh-token, post creation, post search and comment listing from concurrent clients.
+ * <p>
+ * Latency per endpoint is recorded in HDR histograms (microseconds). The JSON result holds
+ * count, errors, throughput, p50/p99/p999/max per endpoint, plus the full histogram in
+ * HdrHistogram's compressed base64 form so runs from different builds can be merged and compared:
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.main=com.molsys.example2.benchmark.LoadTestHarness \
+ *     -Djmh.args="--users=1000 --posts=5000 --comments=20000 --concurrency=32 --seconds=60 --out=target/load-test.json"
+ * </pre>
+ * Closed-loop clients slow down with the server, so latencies understate what an open
+ * arrival rate would see once the service saturates.
+ */
+public class LoadTestHarness {
+
+    private static final String PASSWORD = "load-test-password";
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int SESSIONS = 50;
+    private static final String[] SEARCH_WORDS = {"alpha", "bravo", "charlie", "delta", "echo", "foxtrot", "golf", "hotel"};
+
+    enum Endpoint {
+        REGISTER(10), LOGIN(10), REFRESH_TOKEN(10), CREATE_POST(10), SEARCH_POSTS(25), LIST_COMMENTS(35);
+
+        final int weight;
+
+        Endpoint(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    static final class Stats {
+        final Histogram latency = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+        final AtomicLong errors = new AtomicLong();
+
+        void reset() {
+            latency.reset();
+            errors.set(0);
+        }
+    }
+
+    record Session(String accessToken, String refreshToken) {
+    }
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Endpoint, Stats> stats = new LinkedHashMap<>();
+    private final AtomicInteger registrations = new AtomicInteger();
+    private final String baseUrl;
+    private final int users;
+    private final long[] postIds;
+    private final List<Session> sessions;
+
+    private LoadTestHarness(String baseUrl, int users, long[] postIds, List<Session> sessions) {
+        this.baseUrl = baseUrl;
+        this.users = users;
+        this.postIds = postIds;
+        this.sessions = sessions;
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new Stats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int users = Integer.parseInt(options.getOrDefault("users", "1000"));
+        int posts = Integer.parseInt(options.getOrDefault("posts", "5000"));
+        int comments = Integer.parseInt(options.getOrDefault("comments", "20000"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "32"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "60"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup-seconds", "10"));
+        String bcryptCost = options.getOrDefault("bcrypt-cost", "4");
+        File out = new File(options.getOrDefault("out", "target/load-test.json"));
+
+        // Command-line arguments, so they take precedence over application.properties
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Example2Application.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--auth.rate-limit.enabled=false",
+                        "--auth.password.bcrypt.min-strength=" + bcryptCost,
+                        "--auth.password.bcrypt.max-strength=" + bcryptCost,
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--logging.level.root=WARN")) {
+            long seedStart = System.nanoTime();
+            long[] postIds = seed(context, users, posts, comments);
+            System.out.printf("Seeded %d users, %d posts, %d comments in %.1fs%n",
+                    users, posts, comments, (System.nanoTime() - seedStart) / 1e9);
+
+            String baseUrl = "http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            LoadTestHarness harness = new LoadTestHarness(baseUrl, users, postIds, new ArrayList<>());
+            harness.openSessions(Math.min(SESSIONS, users));
+
+            harness.drive(concurrency, warmupSeconds);
+            harness.stats.values().forEach(Stats::reset);
+            double elapsed = harness.drive(concurrency, seconds);
+
+            Map<String, Object> config = new LinkedHashMap<>();
+            config.put("users", users);
+            config.put("posts", posts);
+            config.put("comments", comments);
+            config.put("concurrency", concurrency);
+            config.put("seconds", seconds);
+            config.put("bcryptCost", Integer.parseInt(bcryptCost));
+            config.put("cpus", Runtime.getRuntime().availableProcessors());
+            config.put("java", Runtime.version().toString());
+            harness.report(config, elapsed, out);
+        }
+    }
+
+    private static long[] seed(ConfigurableApplicationContext context, int users, int posts, int comments)
+            throws InterruptedException {
+        PostSearchIndex searchIndex = context.getBean(PostSearchIndex.class);
+        // Posts added before the startup build finishes could be indexed twice
+        while (!searchIndex.isReady()) {
+            Thread.sleep(10);
+        }
+
+        // One hash for every seeded user; hashing cost is measured by the register and login traffic
+        String hash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        List<User> seededUsers = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            seededUsers.add(User.builder().email(seedEmail(i)).name("User " + i).password(hash).role(Role.USER).build());
+        }
+        seededUsers = userRepository.saveAll(seededUsers);
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        PostRepository postRepository = context.getBean(PostRepository.class);
+        List<Post> seededPosts = new ArrayList<>(posts);
+        for (int i = 0; i < posts; i++) {
+            seededPosts.add(Post.builder()
+                    .title(SEARCH_WORDS[i % SEARCH_WORDS.length] + " post " + i)
+                    .content("Seeded content " + i + " about " + SEARCH_WORDS[random.nextInt(SEARCH_WORDS.length)])
+                    .user(seededUsers.get(random.nextInt(users)))
+                    .build());
+        }
+        seededPosts = postRepository.saveAll(seededPosts);
+        seededPosts.forEach(post -> searchIndex.addLive(post.getId(), post.getTitle(), post.getContent()));
+
+        // Through the service so each post's comment count is maintained
+        CommentService commentService = context.getBean(CommentService.class);
+        List<Comment> batch = new ArrayList<>();
+        for (int i = 0; i < comments; i++) {
+            batch.add(Comment.builder().message("Seeded comment " + i)
+                    .post(seededPosts.get(random.nextInt(posts)))
+                    .user(seededUsers.get(random.nextInt(users)))
+                    .build());
+            if (batch.size() == 1000 || i == comments - 1) {
+                commentService.addComments(batch);
+                batch.clear();
+            }
+        }
+        return seededPosts.stream().mapToLong(Post::getId).toArray();
+    }
+
+    private void openSessions(int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            HttpResponse<String> response = post("/api/auth/login", credentials(seedEmail(i)), null, "application/json");
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Login of seeded user failed: " + response.statusCode() + " " + response.body());
+            }
+            JsonNode body = objectMapper.readTree(response.body());
+            sessions.add(new Session(body.get("accessToken").asText(), body.get("refreshToken").asText()));
+        }
+    }
+
+    private double drive(int concurrency, int seconds) throws InterruptedException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        execute(pick());
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }, "load-client-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        done.await();
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    private Endpoint pick() {
+        int roll = ThreadLocalRandom.current().nextInt(100);
+        for (Endpoint endpoint : Endpoint.values()) {
+            roll -= endpoint.weight;
+            if (roll < 0) {
+                return endpoint;
+            }
+        }
+        return Endpoint.LIST_COMMENTS;
+    }
+
+    private void execute(Endpoint endpoint) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Session session = sessions.get(random.nextInt(sessions.size()));
+        Stats endpointStats = stats.get(endpoint);
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = switch (endpoint) {
+                case REGISTER -> post("/api/auth/register",
+                        credentials("load-" + registrations.incrementAndGet() + "-" + System.nanoTime() + "@example.com"),
+                        null, "application/json");
+                case LOGIN -> post("/api/auth/login", credentials(seedEmail(random.nextInt(users))),
+                        null, "application/json");
+                case REFRESH_TOKEN -> post("/api/auth/refresh-token", session.refreshToken(), null, "text/plain");
+                case CREATE_POST -> post("/api/posts",
+                        "{\"title\":\"load " + SEARCH_WORDS[random.nextInt(SEARCH_WORDS.length)]
+                                + "\",\"content\":\"created under load\"}",
+                        session.accessToken(), "application/json");
+                case SEARCH_POSTS -> get("/api/posts/search?keyword="
+                        + URLEncoder.encode(SEARCH_WORDS[random.nextInt(SEARCH_WORDS.length)], StandardCharsets.UTF_8),
+                        session.accessToken());
+                case LIST_COMMENTS -> get("/api/comments/post/" + postIds[random.nextInt(postIds.length)],
+                        session.accessToken());
+            };
+            long micros = (System.nanoTime() - start) / 1000;
+            if (response.statusCode() == 200) {
+                endpointStats.latency.recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+            } else {
+                endpointStats.errors.incrementAndGet();
+            }
+        } catch (Exception e) {
+            endpointStats.errors.incrementAndGet();
+        }
+    }
+
+    private HttpResponse<String> get(String path, String accessToken) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + accessToken)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String body, String accessToken, String contentType) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", contentType)
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (accessToken != null) {
+            request.header("Authorization", "Bearer " + accessToken);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private void report(Map<String, Object> config, double elapsed, File out) throws Exception {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        System.out.printf("%n%-14s %9s %7s %10s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)");
+        stats.forEach((endpoint, endpointStats) -> {
+            Histogram histogram = endpointStats.latency;
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("count", histogram.getTotalCount());
+            result.put("errors", endpointStats.errors.get());
+            result.put("throughputPerSecond", histogram.getTotalCount() / elapsed);
+            result.put("meanMicros", histogram.getMean());
+            result.put("p50Micros", histogram.getValueAtPercentile(50));
+            result.put("p99Micros", histogram.getValueAtPercentile(99));
+            result.put("p999Micros", histogram.getValueAtPercentile(99.9));
+            result.put("maxMicros", histogram.getMaxValue());
+            result.put("histogram", encode(histogram));
+            endpoints.put(endpoint.name().toLowerCase().replace('_', '-'), result);
+
+            System.out.printf("%-14s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint.name().toLowerCase().replace('_', '-'), histogram.getTotalCount(),
+                    endpointStats.errors.get(), histogram.getTotalCount() / elapsed,
+                    histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+                    histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMaxValue() / 1000.0);
+        });
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("timestamp", Instant.now().toString());
+        result.put("config", config);
+        result.put("elapsedSeconds", elapsed);
+        result.put("endpoints", endpoints);
+        File parent = out.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        objectMapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(out, result);
+        System.out.println("\nResults written to " + out.getPath());
+    }
+
+    // HdrHistogram's compressed encoding; Histogram.decodeFromCompressedByteBuffer reads it back
+    private static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    private String credentials(String email) {
+        return "{\"email\":\"" + email + "\",\"password\":\"" + PASSWORD + "\"}";
+    }
+
+    private static String seedEmail(int index) {
+        return "seed-" + index + "@example.com";
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
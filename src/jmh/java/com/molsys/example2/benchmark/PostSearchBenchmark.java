@@ -0,0 +1,96 @@
+package com.molsys.example2.benchmark;
+
+import com.molsys.example2.search.PostSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Post search over 1M synthetic posts: the in-memory inverted index versus a full scan with a
+ * case-folded substring test, which is what {@code findByTitleContainingIgnoreCase}
+ * ({@code lower(title) like '%kw%'}) makes MySQL do. The scan here runs on in-heap strings,
+ * so it is a lower bound for the database query (no I/O, no network, no row decoding).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+public class PostSearchBenchmark {
+
+    @Param({"1000000"})
+    public int posts;
+
+    @Param({"kaxu", "kaxu lomi"})
+    public String query;
+
+    private PostSearchIndex index;
+    private String[] titles;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        String[] vocabulary = vocabulary(random, 50_000);
+
+        index = new PostSearchIndex();
+        titles = new String[posts];
+        for (int i = 0; i < posts; i++) {
+            titles[i] = sentence(random, vocabulary, 5);
+            index.index(i + 1, titles[i], sentence(random, vocabulary, 20));
+        }
+        index.completeBuild();
+    }
+
+    @Benchmark
+    public long[] invertedIndex() {
+        return index.search(query, 20);
+    }
+
+    @Benchmark
+    public List<Integer> tableScanLike() {
+        String keyword = query.toLowerCase(Locale.ROOT);
+        List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < titles.length; i++) {
+            if (titles[i].toLowerCase(Locale.ROOT).contains(keyword)) {
+                matches.add(i);
+            }
+        }
+        return matches;
+    }
+
+    private static String[] vocabulary(SplittableRandom random, int size) {
+        String consonants = "bdfgklmnprstvxz";
+        String vowels = "aeiou";
+        String[] words = new String[size];
+        for (int i = 0; i < size; i++) {
+            StringBuilder word = new StringBuilder();
+            int syllables = 2 + random.nextInt(3);
+            for (int s = 0; s < syllables; s++) {
+                word.append(consonants.charAt(random.nextInt(consonants.length())));
+                word.append(vowels.charAt(random.nextInt(vowels.length())));
+            }
+            words[i] = word.toString();
+        }
+        // Make the benchmark query words exist with a moderate frequency
+        words[2000] = "kaxu";
+        words[5000] = "lomi";
+        return words;
+    }
+
+    // Zipf-like skew: low word indexes are much more frequent
+    private static String sentence(SplittableRandom random, String[] vocabulary, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                sentence.append(' ');
+            }
+            double u = random.nextDouble();
+            int rank = (int) Math.min(vocabulary.length - 1, Math.floor(Math.pow(vocabulary.length, u)) - 1);
+            sentence.append(vocabulary[rank]);
+        }
+        return sentence.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package com.molsys.example2.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.molsys.example2.Entity.Comment;
+import com.molsys.example2.Entity.Post;
+import com.molsys.example2.Entity.Role;
+import com.molsys.example2.Entity.User;
+import com.molsys.example2.dto.CommentResponse;
+import com.molsys.example2.dto.PostResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to {@link PostResponse}/{@link CommentResponse} mapping and Jackson serialization of
+ * large response lists, with an ObjectMapper configured the way Spring MVC builds its own.
+ * Output goes to a discarding stream so only serialization work and its garbage are measured.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ResponseSerializationBenchmark {
+
+    @Param({"1000", "10000"})
+    public int size;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final OutputStream sink = OutputStream.nullOutputStream();
+
+    private List<Post> posts;
+    private List<Comment> comments;
+    private List<PostResponse> postResponses;
+    private List<CommentResponse> commentResponses;
+
+    @Setup
+    public void setUp() {
+        User author = User.builder().id(1L).email("author@example.com").name("Author").role(Role.USER).build();
+        posts = new ArrayList<>(size);
+        comments = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Post post = Post.builder().id((long) i).title("Post title number " + i)
+                    .content("Post body " + i + " with a couple of sentences of text. ".repeat(4)).user(author).build();
+            posts.add(post);
+            comments.add(Comment.builder().id((long) i).message("Comment number " + i + " on the post")
+                    .post(post).user(author).build());
+        }
+        postResponses = mapPosts();
+        commentResponses = mapComments();
+    }
+
+    @Benchmark
+    public List<PostResponse> mapPosts() {
+        return posts.stream()
+                .map(p -> new PostResponse(p.getId(), p.getTitle(), p.getContent(), p.getUser().getId()))
+                .toList();
+    }
+
+    @Benchmark
+    public List<CommentResponse> mapComments() {
+        return comments.stream()
+                .map(c -> new CommentResponse(c.getId(), c.getMessage(), c.getPost().getId(), c.getUser().getId()))
+                .toList();
+    }
+
+    @Benchmark
+    public void serializePosts() throws IOException {
+        objectMapper.writeValue(sink, postResponses);
+    }
+
+    @Benchmark
+    public void serializeComments() throws IOException {
+        objectMapper.writeValue(sink, commentResponses);
+    }
+
+    @Benchmark
+    public void mapAndSerializePosts() throws IOException {
+        objectMapper.writeValue(sink, mapPosts());
+    }
+}
@@ -0,0 +1,36 @@
+package com.molsys.example2.benchmark;
+
+import com.molsys.example2.security.TokenBucketRateLimiter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Auth rate limiter under contention: eight threads acquiring over a key space five times
+ * larger than the limiter's key bound, so lookups, bucket creation and eviction all run.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Threads(8)
+@Fork(1)
+public class TokenBucketRateLimiterBenchmark {
+
+    private TokenBucketRateLimiter limiter;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        limiter = new TokenBucketRateLimiter(20, 30, 10_000);
+        keys = new String[50_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "10.0." + (i >> 8) + "." + (i & 0xff);
+        }
+    }
+
+    @Benchmark
+    public long tryAcquire() {
+        return limiter.tryAcquire(keys[ThreadLocalRandom.current().nextInt(keys.length)]);
+    }
+}
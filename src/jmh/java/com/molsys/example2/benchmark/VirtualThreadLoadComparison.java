@@ -0,0 +1,223 @@
+package com.molsys.example2.benchmark;
+
+import com.molsys.example2.Entity.Comment;
+import com.molsys.example2.Entity.Post;
+import com.molsys.example2.Entity.Role;
+import com.molsys.example2.Entity.User;
+import com.molsys.example2.Example2Application;
+import com.molsys.example2.Repository.PostRepository;
+import com.molsys.example2.Repository.UserRepository;
+import com.molsys.example2.security.JwtService;
+import com.molsys.example2.service.CommentService;
+import jakarta.servlet.Filter;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.Ordered;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Read-endpoint throughput with platform-thread Tomcat versus virtual threads
+ * ({@code spring.threads.virtual.enabled}), at a client concurrency well above the
+ * platform pool size. Each mode boots the app on the embedded test database, seeds posts and
+ * comments, and drives a mix of post, post-list and comment-list requests. The embedded
+ * database answers in microseconds, so {@code --io-delay-ms} blocks every request for a fixed
+ * time to stand in for the network round trip to MySQL.
+ * <p>
+ * Needs a Java 21 runtime for the virtual-thread run:
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec -Djmh.main=com.molsys.example2.benchmark.VirtualThreadLoadComparison \
+ *     -Djmh.args="--mode=virtual --concurrency=1000 --seconds=20 --io-delay-ms=20" -Djmh.jvmArgs=-Djdk.tracePinnedThreads=short
+ * </pre>
+ */
+public class VirtualThreadLoadComparison {
+
+    private static final int POSTS = 200;
+    private static final int COMMENTS_PER_POST = 5;
+    private static final int MAX_SAMPLES = 2_000_000;
+
+    record Result(String mode, long requests, long errors, double seconds, long[] latenciesMicros) {
+        double throughput() {
+            return requests / seconds;
+        }
+
+        long percentile(double p) {
+            if (latenciesMicros.length == 0) {
+                return 0;
+            }
+            return latenciesMicros[(int) Math.min(latenciesMicros.length - 1, Math.ceil(p * latenciesMicros.length) - 1)];
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "1000"));
+        int seconds = Integer.parseInt(options.getOrDefault("seconds", "20"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup-seconds", "5"));
+        int ioDelayMs = Integer.parseInt(options.getOrDefault("io-delay-ms", "20"));
+        // platform, virtual or both; a single mode per JVM keeps JIT warm-up from favouring the second run
+        String modes = options.getOrDefault("mode", "both");
+
+        if (Runtime.version().feature() < 21) {
+            System.out.println("WARNING: Java " + Runtime.version().feature()
+                    + " has no virtual threads; both runs will use the platform pool");
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (boolean virtual : new boolean[]{false, true}) {
+            if (modes.equals("both") || modes.equals(virtual ? "virtual" : "platform")) {
+                results.add(run(virtual, concurrency, warmupSeconds, seconds, ioDelayMs));
+            }
+        }
+
+        System.out.printf("%nconcurrency=%d io-delay=%dms duration=%ds cpus=%d java=%s%n",
+                concurrency, ioDelayMs, seconds, Runtime.getRuntime().availableProcessors(), Runtime.version());
+        System.out.printf("%-10s %12s %8s %10s %10s %10s%n", "mode", "req/s", "errors", "p50(ms)", "p99(ms)", "max(ms)");
+        for (Result r : results) {
+            System.out.printf("%-10s %12.0f %8d %10.1f %10.1f %10.1f%n", r.mode(), r.throughput(), r.errors(),
+                    r.percentile(0.50) / 1000.0, r.percentile(0.99) / 1000.0, r.percentile(1.0) / 1000.0);
+        }
+    }
+
+    private static Result run(boolean virtual, int concurrency, int warmupSeconds, int seconds, int ioDelayMs)
+            throws Exception {
+        String mode = virtual ? "virtual" : "platform";
+        AtomicReference<String> handlerThread = new AtomicReference<>();
+        // Command-line arguments, so they take precedence over application.properties
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(Example2Application.class)
+                .profiles("test")
+                .initializers(ctx -> ((GenericApplicationContext) ctx).registerBean("ioDelayFilter",
+                        FilterRegistrationBean.class, () -> ioDelayFilter(ioDelayMs, handlerThread)))
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--logging.level.root=WARN")) {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            String bearer = "Bearer " + seed(context);
+            long[] postIds = context.getBean(PostRepository.class).findAll().stream().mapToLong(Post::getId).toArray();
+
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+            drive(mode, client, port, bearer, postIds, concurrency, warmupSeconds, new long[1]);
+            System.out.println(mode + " requests handled on " + handlerThread.get());
+            return drive(mode, client, port, bearer, postIds, concurrency, seconds, new long[MAX_SAMPLES]);
+        }
+    }
+
+    // Each client slot sends its next request as soon as the previous one completes
+    private static Result drive(String mode, HttpClient client, int port, String bearer, long[] postIds, int concurrency,
+                                int seconds, long[] samples) throws InterruptedException {
+        AtomicLong requests = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        AtomicInteger sampleCount = new AtomicInteger();
+        AtomicInteger inFlight = new AtomicInteger();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+
+        Runnable[] slot = new Runnable[1];
+        slot[0] = () -> {
+            if (System.nanoTime() >= deadline) {
+                inFlight.decrementAndGet();
+                return;
+            }
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + nextPath(postIds)))
+                    .header("Authorization", bearer)
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+            long sent = System.nanoTime();
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                long elapsedMicros = (System.nanoTime() - sent) / 1000;
+                if (failure != null || response.statusCode() != 200) {
+                    errors.incrementAndGet();
+                } else {
+                    requests.incrementAndGet();
+                    int index = sampleCount.getAndIncrement();
+                    if (index < samples.length) {
+                        samples[index] = elapsedMicros;
+                    }
+                }
+                slot[0].run();
+            });
+        };
+        for (int i = 0; i < concurrency; i++) {
+            inFlight.incrementAndGet();
+            slot[0].run();
+        }
+        while (inFlight.get() > 0) {
+            Thread.sleep(50);
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        long[] latencies = Arrays.copyOf(samples, Math.min(sampleCount.get(), samples.length));
+        Arrays.sort(latencies);
+        return new Result(mode, requests.get(), errors.get(), elapsed, latencies);
+    }
+
+    private static String nextPath(long[] postIds) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long postId = postIds[random.nextInt(postIds.length)];
+        return switch (random.nextInt(3)) {
+            case 0 -> "/api/posts?size=20";
+            case 1 -> "/api/posts/" + postId;
+            default -> "/api/comments/post/" + postId;
+        };
+    }
+
+    private static FilterRegistrationBean<Filter> ioDelayFilter(int delayMs, AtomicReference<String> handlerThread) {
+        Filter filter = (request, response, chain) -> {
+            handlerThread.compareAndSet(null, Thread.currentThread().toString());
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            chain.doFilter(request, response);
+        };
+        FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    private static String seed(ConfigurableApplicationContext context) {
+        User author = context.getBean(UserRepository.class).save(User.builder()
+                .email("load@example.com").name("Load").password("x").role(Role.USER).build());
+        PostRepository posts = context.getBean(PostRepository.class);
+        // Through the service so each post's comment count is maintained
+        CommentService comments = context.getBean(CommentService.class);
+        for (int i = 0; i < POSTS; i++) {
+            Post post = posts.save(Post.builder().title("post " + i).content("content " + i).user(author).build());
+            List<Comment> batch = new ArrayList<>();
+            for (int c = 0; c < COMMENTS_PER_POST; c++) {
+                batch.add(Comment.builder().message("comment " + c).post(post).user(author).build());
+            }
+            comments.addComments(batch);
+        }
+        return context.getBean(JwtService.class).generateAccessToken(author.getId(), Role.USER);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+}
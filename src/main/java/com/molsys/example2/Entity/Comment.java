@@ -4,23 +4,30 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+// Backs per-post keyset pages in both directions
+@Table(indexes = @Index(name = "idx_comment_post_id_id", columnList = "post_id, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Comment {
 
+    // Ids handed out per sequence call; IdSequenceAligner relies on it to move the sequence past max(id)
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled ids let Hibernate batch inserts; IDENTITY forces one round trip per row
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "comment_seq")
+    @SequenceGenerator(name = "comment_seq", sequenceName = "comment_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private String message;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "post_id")
     private Post post;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 }
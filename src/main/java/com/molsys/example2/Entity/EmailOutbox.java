@@ -0,0 +1,43 @@
+package com.molsys.example2.Entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "email_outbox", indexes = {
+        // Dispatcher polls due messages by status and next attempt time
+        @Index(name = "idx_email_outbox_status_next_attempt", columnList = "status, nextAttemptAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmailOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String recipient;
+
+    private String subject;
+
+    @Column(length = 4000)
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Builder.Default
+    private EmailOutboxStatus status = EmailOutboxStatus.PENDING;
+
+    private int attempts;
+
+    private Instant nextAttemptAt;
+
+    private Instant createdAt;
+
+    private Instant sentAt;
+
+    @Column(length = 1000)
+    private String lastError;
+}
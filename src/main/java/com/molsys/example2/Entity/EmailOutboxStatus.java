@@ -0,0 +1,7 @@
+package com.molsys.example2.Entity;
+
+public enum EmailOutboxStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
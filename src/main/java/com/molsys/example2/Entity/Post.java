@@ -1,7 +1,9 @@
 package com.molsys.example2.Entity;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Data
@@ -9,8 +11,13 @@ import lombok.*;
 @AllArgsConstructor
 @Builder
 public class Post {
+    // Ids handed out per sequence call; IdSequenceAligner relies on it to move the sequence past max(id)
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled ids let Hibernate batch inserts; IDENTITY forces one round trip per row
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "post_seq")
+    @SequenceGenerator(name = "post_seq", sequenceName = "post_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private String title;
@@ -18,7 +25,15 @@ public class Post {
     @Column(length = 1000)
     private String content;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;  // Foreign key to User
+
+    // Persisted copy of the in-memory CommentCounters, written on their scheduled flush.
+    // Never taken from a request body: a client value would be the base the deltas are added to.
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private long commentCount = 0;
 }
@@ -0,0 +1,33 @@
+package com.molsys.example2.Entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "refresh_session", indexes = {
+        @Index(name = "uk_refresh_session_token_hash", columnList = "tokenHash", unique = true),
+        @Index(name = "idx_refresh_session_user", columnList = "user_id"),
+        @Index(name = "idx_refresh_session_expires_at", columnList = "expiresAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshSession {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SHA-256 of the refresh token, hex encoded; the raw token is never stored
+    @Column(length = 64, nullable = false)
+    private String tokenHash;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    private Instant createdAt;
+
+    private Instant expiresAt;
+}
@@ -5,6 +5,10 @@ import lombok.*;
 import java.time.Instant;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_user_password_reset_token", columnList = "passwordResetToken"),
+        @Index(name = "idx_user_password_reset_token_expiry", columnList = "passwordResetTokenExpiry")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -24,10 +28,6 @@ public class User {
     @Enumerated(EnumType.STRING)
     private Role role = Role.ADMIN;
 
-    private String refreshToken;
-
-    private Instant refreshTokenExpiry;
-
     // Password reset fields
     private String passwordResetToken;
 
@@ -1,10 +1,37 @@
 package com.molsys.example2.Repository;
 
 import com.molsys.example2.Entity.Comment;
+import com.molsys.example2.dto.CommentResponse;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findByPostId(Long postId);
+    // Only the CommentResponse columns; post and user ids come from the FK columns without joins
+    String COMMENT_RESPONSE = "select new com.molsys.example2.dto.CommentResponse(c.id, c.message, c.post.id, c.user.id) "
+            + "from Comment c ";
+
+    // Keyset pages of one post, range scans on (post_id, id); pass 0 / Long.MAX_VALUE for the first page
+    @Transactional(readOnly = true)
+    @Query(COMMENT_RESPONSE + "where c.post.id = :postId and c.id > :afterId order by c.id")
+    List<CommentResponse> findPageAfter(@Param("postId") Long postId, @Param("afterId") Long afterId, Limit limit);
+
+    @Transactional(readOnly = true)
+    @Query(COMMENT_RESPONSE + "where c.post.id = :postId and c.id < :beforeId order by c.id desc")
+    List<CommentResponse> findPageBefore(@Param("postId") Long postId, @Param("beforeId") Long beforeId, Limit limit);
+
+    // First perPost comments of each post in one statement; row_number() applies the cap per post
+    @Transactional(readOnly = true)
+    @Query("select new com.molsys.example2.dto.CommentResponse(r.id, r.message, r.postId, r.userId) from ("
+            + "select c.id as id, c.message as message, c.post.id as postId, c.user.id as userId, "
+            + "row_number() over (partition by c.post.id order by c.id) as rn "
+            + "from Comment c where c.post.id in :postIds) r "
+            + "where r.rn <= :perPost order by r.postId, r.id")
+    List<CommentResponse> findFirstResponsesByPostIdIn(@Param("postIds") Collection<Long> postIds,
+                                                       @Param("perPost") int perPost);
 }
@@ -0,0 +1,32 @@
+package com.molsys.example2.Repository;
+
+import com.molsys.example2.Entity.EmailOutbox;
+import com.molsys.example2.Entity.EmailOutboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // Lock due rows, skipping ones another dispatcher instance has already claimed (SKIP LOCKED)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select e from EmailOutbox e where e.status = :status and e.nextAttemptAt <= :now order by e.id")
+    List<EmailOutbox> findDueForUpdate(@Param("status") EmailOutboxStatus status,
+                                       @Param("now") Instant now,
+                                       Pageable pageable);
+
+    @Modifying
+    @Query("update EmailOutbox e set e.status = com.molsys.example2.Entity.EmailOutboxStatus.SENT, e.sentAt = :sentAt where e.id in :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") Instant sentAt);
+}
@@ -1,11 +1,50 @@
 package com.molsys.example2.Repository;
 
 import com.molsys.example2.Entity.Post;
+import com.molsys.example2.dto.PostResponse;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 public interface PostRepository extends JpaRepository<Post, Long> {
+    // Read paths select exactly the PostResponse columns; p.user.id is the FK column, no join
+    String POST_RESPONSE = "select new com.molsys.example2.dto.PostResponse(p.id, p.title, p.content, p.user.id) from Post p ";
+
     // Search by title containing a keyword (case-insensitive)
-    List<Post> findByTitleContainingIgnoreCase(String keyword);
+    @Transactional(readOnly = true)
+    @Query(POST_RESPONSE + "where lower(p.title) like lower(concat('%', :keyword, '%')) order by p.id desc")
+    List<PostResponse> findByTitleContainingIgnoreCase(@Param("keyword") String keyword, Limit limit);
+
+    // Keyset pagination, newest first: primary-key range scans, no OFFSET
+    @Transactional(readOnly = true)
+    @Query(POST_RESPONSE + "order by p.id desc")
+    List<PostResponse> findNewest(Limit limit);
+
+    @Transactional(readOnly = true)
+    @Query(POST_RESPONSE + "where p.id < :id order by p.id desc")
+    List<PostResponse> findOlderThan(@Param("id") Long id, Limit limit);
+
+    @Query(POST_RESPONSE + "where p.id = :id")
+    Optional<PostResponse> findResponseById(@Param("id") Long id);
+
+    @Transactional(readOnly = true)
+    @Query(POST_RESPONSE + "where p.id in :ids")
+    List<PostResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Text-only rows in id order, for building the search index without loading users
+    @Query("select p.id as id, p.title as title, p.content as content from Post p where p.id > :afterId order by p.id")
+    List<PostText> findTextAfter(@Param("afterId") Long afterId, Limit limit);
+
+    interface PostText {
+        Long getId();
+
+        String getTitle();
 
-}
\ No newline at end of file
+        String getContent();
+    }
+}
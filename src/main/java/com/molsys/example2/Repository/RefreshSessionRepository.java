@@ -0,0 +1,32 @@
+package com.molsys.example2.Repository;
+
+import com.molsys.example2.Entity.RefreshSession;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface RefreshSessionRepository extends JpaRepository<RefreshSession, Long> {
+    Optional<RefreshSession> findByTokenHash(String tokenHash);
+
+    // Revoke every session (device) of a user in one statement
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshSession s where s.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    // Oldest expired sessions first, walking idx_refresh_session_expires_at
+    @Query("select s.id from RefreshSession s where s.expiresAt < :now order by s.expiresAt")
+    List<Long> findExpiredIds(@Param("now") Instant now, Limit limit);
+
+    @Modifying
+    @Query("delete from RefreshSession s where s.id in :ids and s.expiresAt < :now")
+    int deleteExpired(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+}
@@ -1,12 +1,29 @@
 package com.molsys.example2.Repository;
 
 import com.molsys.example2.Entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
-    Optional<User> findByRefreshToken(String token);
+    boolean existsByEmail(String email);
     Optional<User> findByPasswordResetToken(String token);
-}
\ No newline at end of file
+
+    // Oldest expired reset tokens first, walking idx_user_password_reset_token_expiry
+    @Query("select u.id from User u where u.passwordResetTokenExpiry < :now order by u.passwordResetTokenExpiry")
+    List<Long> findIdsWithExpiredResetToken(@Param("now") Instant now, Limit limit);
+
+    // Re-checks the expiry so a token reissued since the select survives
+    @Modifying
+    @Query("update User u set u.passwordResetToken = null, u.passwordResetTokenExpiry = null " +
+            "where u.id in :ids and u.passwordResetTokenExpiry < :now")
+    int clearExpiredResetTokens(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+}
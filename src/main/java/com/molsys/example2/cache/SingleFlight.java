@@ -0,0 +1,46 @@
+package com.molsys.example2.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Read-through lookup on an {@link AsyncCache} with the load on the calling thread.
+ * <p>
+ * The first caller for a missing key installs a pending future and runs the loader outside
+ * the cache's internal locks; concurrent callers for the same key wait on that future. A load
+ * held inside a {@code synchronized} map bin would pin the carrier thread on virtual threads.
+ * A null result completes the future with null, which Caffeine drops, and a failed load is
+ * removed as well, so neither is cached. The cache records the load when the pending future
+ * completes, if it was built with {@code recordStats()}; Caffeine counts a null result as a
+ * load failure.
+ */
+public final class SingleFlight {
+
+    private SingleFlight() {
+    }
+
+    /**
+     * Cached value, or the loader's result.
+     */
+    public static <K, V> V getOrLoad(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        CompletableFuture<V> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached.join();
+        }
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> existing = cache.asMap().putIfAbsent(key, loading);
+        if (existing != null) {
+            return existing.join();
+        }
+        try {
+            V value = loader.apply(key);
+            loading.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+}
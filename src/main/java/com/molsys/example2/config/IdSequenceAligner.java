@@ -0,0 +1,63 @@
+package com.molsys.example2.config;
+
+import com.molsys.example2.Entity.Comment;
+import com.molsys.example2.Entity.Post;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the post and comment id sequences past the highest existing id at startup, before
+ * the first insert. Databases created while ids were IDENTITY columns get a new sequence
+ * starting at 1 from {@code ddl-auto=update}, which would collide with existing rows.
+ * <p>
+ * With pooled allocation a sequence value {@code v} hands out ids up to {@code v}, starting
+ * at {@code v - allocationSize + 1}, so a sequence is healthy once its next value is at
+ * least {@code max(id) + allocationSize}. Sequences that are already ahead are left alone.
+ */
+@Component
+@Slf4j
+public class IdSequenceAligner implements SmartInitializingSingleton {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Dialect dialect;
+
+    public IdSequenceAligner(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        align("post", "post_seq", Post.ID_ALLOCATION_SIZE);
+        align("comment", "comment_seq", Comment.ID_ALLOCATION_SIZE);
+    }
+
+    void align(String table, String sequence, int allocationSize) {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from " + table, Long.class);
+        if (maxId == null) {
+            return;
+        }
+        long target = maxId + allocationSize;
+        boolean moved;
+        if (dialect.getSequenceSupport().supportsSequences()) {
+            // Reading the next value only skips one block when the sequence is already ahead
+            Long next = jdbcTemplate.queryForObject(
+                    dialect.getSequenceSupport().getSequenceNextValString(sequence), Long.class);
+            moved = next != null && next < target;
+            if (moved) {
+                jdbcTemplate.execute("alter sequence " + sequence + " restart with " + target);
+            }
+        } else {
+            // Table-emulated sequence (MySQL): a single next_val row
+            moved = jdbcTemplate.update("update " + sequence + " set next_val = ? where next_val < ?", target, target) > 0;
+        }
+        if (moved) {
+            log.warn("Moved {} past max({}.id) = {}; next ids start above it", sequence, table, maxId);
+        }
+    }
+}
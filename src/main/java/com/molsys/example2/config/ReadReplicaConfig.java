@@ -0,0 +1,68 @@
+package com.molsys.example2.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Primary pool plus read replica pools behind one routing {@link DataSource}.
+ * Without {@code app.datasource.routing.enabled=true} Boot's single pool is used as before.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(
+            HikariDataSource primaryDataSource, DataSourceProperties properties, MeterRegistry meterRegistry,
+            RecentWriters recentWriters,
+            @Value("${app.datasource.routing.replica-urls:}") List<String> replicaUrls,
+            @Value("${app.datasource.routing.replica-pool-size:10}") int replicaPoolSize,
+            @Value("${app.datasource.routing.health-check-timeout:PT2S}") Duration healthCheckTimeout) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .username(properties.determineUsername())
+                    .password(properties.determinePassword())
+                    .build();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setMaximumPoolSize(replicaPoolSize);
+            // A replica that is down at startup must not stop the application; it starts out failed over
+            replica.setInitializationFailTimeout(-1);
+            replica.setMetricRegistry(meterRegistry);
+            replicas.add(replica);
+        }
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas, recentWriters, healthCheckTimeout);
+    }
+
+    // Defers the physical connection to the first statement, when the transaction's read-only flag is known
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,161 @@
+package com.molsys.example2.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends read-only transactions to a healthy replica, round robin, and everything else to
+ * the primary. A user who has just committed a write ({@link RecentWriters}) keeps reading
+ * from the primary for the read-your-writes window, so their next page does not race
+ * replication. Reads that must not see replication lag run in a read-write transaction to
+ * reach the primary; that alone does not make the user a recent writer.
+ * <p>
+ * A replica that refuses a connection or fails the periodic probe is skipped until a probe
+ * succeeds again; with no healthy replica, reads go to the primary.
+ * <p>
+ * Must be used behind a {@link LazyConnectionDataSourceProxy}: a transaction's read-only
+ * flag is only set after the transaction manager has asked for its connection.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements MeterBinder, AutoCloseable {
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final RecentWriters recentWriters;
+    private final int probeTimeoutSeconds;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final LongAdder failovers = new LongAdder();
+
+    private static final class Replica {
+        final String name;
+        final DataSource dataSource;
+        volatile boolean healthy = true;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionOpener {
+        Connection open(DataSource dataSource) throws SQLException;
+    }
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                      RecentWriters recentWriters, Duration probeTimeout) {
+        this.primary = primary;
+        for (DataSource replica : replicas) {
+            this.replicas.add(new Replica("replica-" + this.replicas.size(), replica));
+        }
+        this.recentWriters = recentWriters;
+        this.probeTimeoutSeconds = (int) Math.max(1, probeTimeout.toSeconds());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return connect(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return connect(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection connect(ConnectionOpener opener) throws SQLException {
+        Replica replica = replicaForCurrentTransaction();
+        if (replica != null) {
+            try {
+                return opener.open(replica.dataSource);
+            } catch (SQLException | RuntimeException e) {
+                markDown(replica, e);
+                failovers.increment();
+            }
+        }
+        return opener.open(primary);
+    }
+
+    // Null means the primary
+    private Replica replicaForCurrentTransaction() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || replicas.isEmpty() || recentWriters.currentUserWroteRecently()) {
+            return null;
+        }
+        int start = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private void markDown(Replica replica, Exception cause) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            log.warn("Read replica {} unavailable, reads fall back to the primary until it passes a health check",
+                    replica.name, cause);
+        }
+    }
+
+    /**
+     * Check every replica with a fresh connection and bring recovered ones back into rotation.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.routing.health-check-interval-ms:5000}")
+    public void probeReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            Exception failure = null;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(probeTimeoutSeconds);
+            } catch (SQLException | RuntimeException e) {
+                healthy = false;
+                failure = e;
+            }
+            if (!healthy) {
+                markDown(replica, failure);
+            } else if (!replica.healthy) {
+                replica.healthy = true;
+                log.info("Read replica {} passed its health check and is back in rotation", replica.name);
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("datasource.replicas.healthy", this,
+                        routing -> routing.replicas.stream().filter(replica -> replica.healthy).count())
+                .description("Read replicas currently receiving read-only transactions")
+                .register(registry);
+        FunctionCounter.builder("datasource.replicas.failovers", failovers, LongAdder::sum)
+                .description("Read-only connections sent to the primary because a replica refused them")
+                .register(registry);
+    }
+
+    // The primary pool is closed by its own bean
+    @Override
+    public void close() throws Exception {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.molsys.example2.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.molsys.example2.security.UserPrincipal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+/**
+ * Users who have committed a write within the read-your-writes window; their read-only
+ * transactions stay on the primary (see {@link ReadWriteRoutingDataSource}).
+ * <p>
+ * Write paths call {@link #wrote(Long)} with the author of each saved row, which also covers
+ * rows saved off the request thread. Inside a transaction the user is only recorded once it
+ * commits, so a rolled-back write does not count, and neither does a read that merely ran
+ * in a read-write transaction to reach the primary.
+ */
+@Component
+public class RecentWriters {
+
+    private static final long MAX_TRACKED_WRITERS = 100_000;
+
+    private final Cache<Long, Boolean> userIds;
+
+    public RecentWriters(@Value("${app.datasource.routing.read-your-writes-window:PT5S}") Duration window) {
+        this.userIds = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_WRITERS)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    /**
+     * Record that the user wrote, after the current transaction commits, or now when there is
+     * none (the write has already committed).
+     */
+    public void wrote(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userIds.put(userId, Boolean.TRUE);
+                }
+            });
+        } else {
+            userIds.put(userId, Boolean.TRUE);
+        }
+    }
+
+    boolean currentUserWroteRecently() {
+        Long userId = currentUserId();
+        return userId != null && userIds.getIfPresent(userId) != null;
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal
+                ? principal.id()
+                : null;
+    }
+}
@@ -1,6 +1,11 @@
 package com.molsys.example2.config;
 
+import com.molsys.example2.security.AuthRateLimitFilter;
+import com.molsys.example2.security.BCryptCostCalibrator;
+import com.molsys.example2.security.BoundedPasswordEncoder;
 import com.molsys.example2.security.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -10,18 +15,21 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+
 @Configuration
 @EnableMethodSecurity
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
+    private final AuthRateLimitFilter rateLimitFilter;
 
-    public SecurityConfig(JwtAuthenticationFilter jwtAuthFilter) {
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthFilter, AuthRateLimitFilter rateLimitFilter) {
         this.jwtAuthFilter = jwtAuthFilter;
+        this.rateLimitFilter = rateLimitFilter;
     }
 
     @Bean
@@ -33,17 +41,31 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/register", "/api/auth/login", "/api/auth/refresh-token").permitAll()
                         .requestMatchers("/api/auth/forgot-password", "/api/auth/reset-password").permitAll()
                         .requestMatchers("/api/auth/change-password").authenticated()
+                        // Served on the loopback-only management port
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                // Throttle auth endpoints before any token, database or hashing work
+                .addFilterBefore(rateLimitFilter, JwtAuthenticationFilter.class)
                 .httpBasic(Customizer.withDefaults());
 
         return http.build();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(
+            @Value("${auth.password.bcrypt.target-latency:PT0.1S}") Duration targetLatency,
+            @Value("${auth.password.bcrypt.min-strength:10}") int minStrength,
+            @Value("${auth.password.bcrypt.max-strength:14}") int maxStrength,
+            @Value("${auth.password.hash.threads:0}") int threads,
+            @Value("${auth.password.hash.queue-capacity:64}") int queueCapacity,
+            @Value("${auth.password.hash.timeout:PT10S}") Duration timeout,
+            MeterRegistry meterRegistry) {
+        int strength = BCryptCostCalibrator.calibrate(targetLatency, minStrength, maxStrength);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        // BCrypt runs on its own bounded pool instead of the request thread
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueCapacity, timeout, meterRegistry);
     }
 
     @Bean
@@ -1,10 +1,12 @@
 package com.molsys.example2.controller;
 
 import com.molsys.example2.dto.*;
+import com.molsys.example2.security.UserPrincipal;
 import com.molsys.example2.service.AuthService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
@@ -34,6 +36,15 @@ public class AuthController {
         return ResponseEntity.ok("Logged out successfully");
     }
 
+    @PostMapping("/logout-all")
+    public ResponseEntity<String> logoutAll(@AuthenticationPrincipal UserPrincipal principal) {
+        if (principal == null) {
+            throw new RuntimeException("User not found");
+        }
+        authService.logoutAll(principal.id());
+        return ResponseEntity.ok("Logged out from all devices");
+    }
+
     @PostMapping("/change-password")
     public ResponseEntity<String> changePassword(@RequestBody PasswordChangeRequest request) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
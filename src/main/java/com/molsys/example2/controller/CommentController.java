@@ -2,43 +2,136 @@ package com.molsys.example2.controller;
 import com.molsys.example2.Entity.Comment;
 import com.molsys.example2.Entity.User;
 import com.molsys.example2.Repository.UserRepository;
+import com.molsys.example2.dto.CommentAcceptedResponse;
 import com.molsys.example2.dto.CommentResponse;
+import com.molsys.example2.dto.CursorPage;
+import com.molsys.example2.security.UserPrincipal;
+import com.molsys.example2.service.CollectionVersions;
 import com.molsys.example2.service.CommentService;
+import com.molsys.example2.service.CommentWriteBehind;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Optional;
 @RestController
 @RequestMapping("/api/comments")
 @RequiredArgsConstructor
 public class CommentController {
     private final CommentService commentService;
     private final UserRepository userRepository;
+    private final Optional<CommentWriteBehind> writeBehind;
+    private final CollectionVersions versions;
+
+    private static final int MAX_POST_IDS = 200;
+    private static final int MAX_PER_POST = 100;
+    private static final int MAX_BATCH_SIZE = 1000;
+
+    // Keyset pages, ?order=oldest|newest&cursor=..&size=..; totalCount comes from the post's maintained counter
     @GetMapping("/post/{postId}")
-    public List<CommentResponse> getCommentsForPost(@PathVariable Long postId) {
-        return commentService.getCommentsByPostId(postId).stream()
-                .map(comment -> new CommentResponse(
-                        comment.getId(),
-                        comment.getMessage(),
-                        comment.getPost() != null ? comment.getPost().getId() : null,
-                        comment.getUser() != null ? comment.getUser().getId() : null
-                ))
-                .collect(Collectors.toList());
+    public ResponseEntity<CursorPage<CommentResponse>> getCommentsForPost(@PathVariable Long postId,
+                                                                          @RequestParam(value = "order", defaultValue = "oldest") String order,
+                                                                          @RequestParam(value = "cursor", required = false) String cursor,
+                                                                          @RequestParam(value = "size", defaultValue = "20") int size,
+                                                                          WebRequest request) {
+        boolean newestFirst = switch (order) {
+            case "oldest" -> false;
+            case "newest" -> true;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "order must be oldest or newest");
+        };
+        Long cursorId = CursorPage.decodeCursor(cursor);
+
+        // Taken before the lookup; a matching If-None-Match is answered with 304 without touching the database
+        String etag = versions.commentsETag(postId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        CursorPage<CommentResponse> page = commentService.getCommentPage(postId, newestFirst, cursorId,
+                Math.max(1, Math.min(size, CommentService.MAX_PAGE_SIZE)));
+        if (page == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(page);
+    }
+
+    // Comments for a whole feed page in one round trip, e.g. ?postIds=1,2,3&perPost=10
+    @GetMapping("/posts")
+    public Map<Long, List<CommentResponse>> getCommentsForPosts(@RequestParam("postIds") List<Long> postIds,
+                                                                @RequestParam(value = "perPost", defaultValue = "20") int perPost) {
+        if (postIds.isEmpty() || postIds.size() > MAX_POST_IDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "postIds must contain between 1 and " + MAX_POST_IDS + " ids");
+        }
+        return commentService.getCommentsByPostIds(postIds, Math.max(1, Math.min(perPost, MAX_PER_POST)));
     }
+    // With write-behind enabled the comment is queued and answered with 202, unless durable=true
+    // asks to wait for the commit
     @PostMapping
-    public CommentResponse addComment(@RequestBody Comment comment, Authentication authentication) {
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        comment.setUser(user);
+    public ResponseEntity<?> addComment(@RequestBody Comment comment,
+                                        @RequestParam(value = "durable", defaultValue = "false") boolean durable,
+                                        @AuthenticationPrincipal UserPrincipal principal) {
+        if (principal == null) {
+            throw new RuntimeException("User not found");
+        }
+        // Reference proxy: only the id is needed for the foreign key, so no user query is issued
+        comment.setUser(userRepository.getReferenceById(principal.id()));
+        if (writeBehind.isPresent()) {
+            return enqueue(writeBehind.get(), comment, durable, principal.id());
+        }
         Comment saved = commentService.addComment(comment);
 
-        return new CommentResponse(
+        return ResponseEntity.ok(new CommentResponse(
                 saved.getId(),
                 saved.getMessage(),
                 saved.getPost() != null ? saved.getPost().getId() : null,
-                user.getId()
-        );
+                principal.id()
+        ));
+    }
+
+    private ResponseEntity<?> enqueue(CommentWriteBehind queue, Comment comment, boolean durable, Long userId) {
+        comment.setId(null);
+        Long postId = comment.getPost() != null ? comment.getPost().getId() : null;
+        String message = comment.getMessage();
+        CommentWriteBehind.Accepted accepted = queue.submit(comment);
+        if (durable) {
+            CommentResponse saved = queue.awaitPersisted(accepted);
+            if (saved != null) {
+                return ResponseEntity.ok(saved);
+            }
+        }
+        return ResponseEntity.accepted().body(new CommentAcceptedResponse(accepted.provisionalId(), message, postId, userId));
+    }
+
+    // Bulk import: one user reference and one transaction for the whole list
+    @PostMapping("/batch")
+    public List<CommentResponse> addComments(@RequestBody List<Comment> comments, @AuthenticationPrincipal UserPrincipal principal) {
+        if (principal == null) {
+            throw new RuntimeException("User not found");
+        }
+        if (comments.isEmpty() || comments.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Batch must contain between 1 and " + MAX_BATCH_SIZE + " comments");
+        }
+
+        User author = userRepository.getReferenceById(principal.id());
+        for (Comment comment : comments) {
+            // Ids are always generated
+            comment.setId(null);
+            comment.setUser(author);
+        }
+        return commentService.addComments(comments).stream()
+                .map(saved -> new CommentResponse(saved.getId(), saved.getMessage(),
+                        saved.getPost() != null ? saved.getPost().getId() : null, principal.id()))
+                .toList();
     }
-}
\ No newline at end of file
+}
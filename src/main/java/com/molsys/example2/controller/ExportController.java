@@ -0,0 +1,34 @@
+package com.molsys.example2.controller;
+
+import com.molsys.example2.service.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class ExportController {
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final ExportService exportService;
+
+    // Written straight to the response; pass the last received id as afterId to resume
+    @GetMapping(value = "/posts", produces = NDJSON)
+    public void exportPosts(@RequestParam(value = "afterId", defaultValue = "0") long afterId,
+                            HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        exportService.exportPosts(afterId, response.getOutputStream());
+    }
+
+    @GetMapping(value = "/comments", produces = NDJSON)
+    public void exportComments(@RequestParam(value = "afterId", defaultValue = "0") long afterId,
+                               HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        exportService.exportComments(afterId, response.getOutputStream());
+    }
+}
@@ -3,61 +3,108 @@ package com.molsys.example2.controller;
 import com.molsys.example2.Entity.Post;
 import com.molsys.example2.Entity.User;
 import com.molsys.example2.Repository.UserRepository;
+import com.molsys.example2.dto.CursorPage;
 import com.molsys.example2.dto.PostResponse;
+import com.molsys.example2.security.UserPrincipal;
+import com.molsys.example2.service.CollectionVersions;
 import com.molsys.example2.service.PostService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.Authentication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/posts")
 @RequiredArgsConstructor
 public class PostController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_BATCH_SIZE = 1000;
+
     private final PostService postService;
     private final UserRepository userRepository;
+    private final CollectionVersions versions;
 
     @GetMapping
-    public List<PostResponse> getAllPosts() {
-        return postService.getAllPosts().stream()
-                .map(post -> new PostResponse(
-                        post.getId(),
-                        post.getTitle(),
-                        post.getContent(),
-                        post.getUser() != null ? post.getUser().getId() : null
-                ))
-                .collect(Collectors.toList());
+    public ResponseEntity<CursorPage<PostResponse>> getAllPosts(@RequestParam(value = "cursor", required = false) String cursor,
+                                                                @RequestParam(value = "size", defaultValue = "20") int size,
+                                                                WebRequest request) {
+        // Taken before the query; a matching If-None-Match is answered with 304 without touching the database
+        String etag = versions.postsETag();
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        // Fetch one extra row to learn whether another page exists
+        List<PostResponse> posts = postService.getPostsBefore(CursorPage.decodeCursor(cursor), pageSize + 1);
+        boolean hasMore = posts.size() > pageSize;
+        List<PostResponse> items = hasMore ? posts.subList(0, pageSize) : posts;
+        String nextCursor = hasMore ? CursorPage.encodeCursor(items.get(items.size() - 1).getId()) : null;
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(new CursorPage<>(items, nextCursor));
+    }
+
+    @GetMapping("/{id}")
+    public PostResponse getPost(@PathVariable Long id) {
+        PostResponse post = postService.getPost(id);
+        if (post == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Post not found");
+        }
+        return post;
     }
 
     @PostMapping
-    public PostResponse createPost(@RequestBody Post post, Authentication authentication) {
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public PostResponse createPost(@RequestBody Post post, @AuthenticationPrincipal UserPrincipal principal) {
+        if (principal == null) {
+            throw new RuntimeException("User not found");
+        }
 
-        post.setUser(user);
+        // Reference proxy: only the id is needed for the foreign key, so no user query is issued
+        post.setUser(userRepository.getReferenceById(principal.id()));
         Post savedPost = postService.createPost(post);
 
         return new PostResponse(
                 savedPost.getId(),
                 savedPost.getTitle(),
                 savedPost.getContent(),
-                user.getId()
+                principal.id()
         );
     }
 
+    // Bulk import: one user reference and one transaction for the whole list
+    @PostMapping("/batch")
+    public List<PostResponse> createPosts(@RequestBody List<Post> posts, @AuthenticationPrincipal UserPrincipal principal) {
+        if (principal == null) {
+            throw new RuntimeException("User not found");
+        }
+        if (posts.isEmpty() || posts.size() > MAX_BATCH_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Batch must contain between 1 and " + MAX_BATCH_SIZE + " posts");
+        }
+
+        User author = userRepository.getReferenceById(principal.id());
+        for (Post post : posts) {
+            // Ids are always generated
+            post.setId(null);
+            post.setUser(author);
+        }
+        return postService.createPosts(posts).stream()
+                .map(saved -> new PostResponse(saved.getId(), saved.getTitle(), saved.getContent(), principal.id()))
+                .toList();
+    }
+
     @GetMapping("/search")
-    public List<PostResponse> searchPosts(@RequestParam("keyword") String keyword) {
-        return postService.searchPosts(keyword).stream()
-                .map(post -> new PostResponse(
-                        post.getId(),
-                        post.getTitle(),
-                        post.getContent(),
-                        post.getUser() != null ? post.getUser().getId() : null
-                ))
-                .collect(Collectors.toList());
+    public List<PostResponse> searchPosts(@RequestParam("keyword") String keyword,
+                                          @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return postService.searchPosts(keyword, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
     }
 }
@@ -0,0 +1,25 @@
+package com.molsys.example2.controller;
+
+import com.molsys.example2.dto.BulkProvisioningResponse;
+import com.molsys.example2.service.UserProvisioningService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/admin/users")
+@RequiredArgsConstructor
+public class UserProvisioningController {
+    private final UserProvisioningService provisioningService;
+
+    // Body is newline-delimited JSON, one {"email", "password", "name", "role"} object per line
+    @PostMapping(value = "/bulk", consumes = "application/x-ndjson")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BulkProvisioningResponse> bulkProvision(HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(provisioningService.provision(request.getInputStream()));
+    }
+}
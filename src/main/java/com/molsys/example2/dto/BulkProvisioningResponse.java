@@ -0,0 +1,13 @@
+package com.molsys.example2.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BulkProvisioningResponse {
+    private long received;
+    private long created;
+    private long skippedExisting;
+    private long invalid;
+}
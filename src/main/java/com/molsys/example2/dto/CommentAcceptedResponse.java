@@ -0,0 +1,14 @@
+package com.molsys.example2.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// A queued comment that has not been written yet; the database id is assigned on flush
+@Data
+@AllArgsConstructor
+public class CommentAcceptedResponse {
+    private String provisionalId;
+    private String message;
+    private Long postId;
+    private Long userId;
+}
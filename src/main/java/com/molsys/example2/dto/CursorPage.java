@@ -0,0 +1,50 @@
+package com.molsys.example2.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing. {@code nextCursor} is an opaque token to pass
+ * back as {@code cursor} for the following page, or null on the last page.
+ * {@code totalCount} is only present on listings that maintain a count.
+ */
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+    private Long totalCount;
+
+    public CursorPage(List<T> items, String nextCursor) {
+        this(items, nextCursor, null);
+    }
+
+    public static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("id:" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Returns null for a missing cursor (first page)
+    public static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith("id:")) {
+                throw new IllegalArgumentException(decoded);
+            }
+            return Long.parseLong(decoded.substring(3));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+}
@@ -10,4 +10,10 @@ public class PostResponse {
     private String title;
     private String content;
     private Long userId;
+    // Filled in from the in-memory comment counters, not from the query
+    private long commentCount;
+
+    public PostResponse(Long id, String title, String content, Long userId) {
+        this(id, title, content, userId, 0);
+    }
 }
@@ -0,0 +1,13 @@
+package com.molsys.example2.dto;
+
+import com.molsys.example2.Entity.Role;
+import lombok.Data;
+
+// One line of the NDJSON bulk provisioning stream
+@Data
+public class ProvisionUserRequest {
+    private String email;
+    private String password;
+    private String name;
+    private Role role;
+}
@@ -0,0 +1,81 @@
+package com.molsys.example2.search;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing int to float map used to sum scores per document during a query,
+ * without boxing and without a dense array sized to the whole corpus.
+ */
+final class IntFloatAccumulator {
+
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private float[] values;
+    private int size;
+    private int mask;
+
+    IntFloatAccumulator(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new float[capacity];
+        mask = capacity - 1;
+        Arrays.fill(keys, EMPTY);
+    }
+
+    void add(int key, float delta) {
+        int slot = mix(key) & mask;
+        while (true) {
+            int existing = keys[slot];
+            if (existing == key) {
+                values[slot] += delta;
+                return;
+            }
+            if (existing == EMPTY) {
+                keys[slot] = key;
+                values[slot] = delta;
+                if (++size * 2 > keys.length) {
+                    grow();
+                }
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    interface EntryConsumer {
+        void accept(int key, float value);
+    }
+
+    void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        float[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new float[oldValues.length * 2];
+        mask = keys.length - 1;
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                add(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,27 @@
+package com.molsys.example2.search;
+
+import java.util.Arrays;
+
+/**
+ * Growable int array, used for n-gram to term id lists.
+ */
+final class IntList {
+
+    private int[] values = new int[2];
+    private int size;
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int i) {
+        return values[i];
+    }
+}
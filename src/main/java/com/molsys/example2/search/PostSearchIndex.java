@@ -0,0 +1,269 @@
+package com.molsys.example2.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory inverted index over post titles and content.
+ * <p>
+ * Terms map to primitive posting lists of document ordinals. A trigram index over the
+ * term dictionary lets a query word also match longer words that contain it, which keeps
+ * the substring behaviour of the old {@code LIKE '%keyword%'} search; words shorter than a
+ * trigram are matched by scanning the dictionary, up to a fixed number of postings, so a
+ * one-letter query does not score the whole index under the read lock. Results are ranked by a TF-IDF style
+ * score, with title occurrences weighted higher than content.
+ */
+@Component
+public class PostSearchIndex {
+
+    private static final int GRAM = 3;
+    private static final int TITLE_WEIGHT = 3;
+    private static final float SUBSTRING_MATCH_WEIGHT = 0.5f;
+    // Postings a query word shorter than a trigram may add through substring matches
+    static final int SHORT_WORD_MAX_POSTINGS = 10_000;
+    private static final float[] TF_WEIGHTS = new float[64];
+
+    static {
+        for (int i = 1; i < TF_WEIGHTS.length; i++) {
+            TF_WEIGHTS[i] = 1 + (float) Math.log(i);
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // All fields below are guarded by lock
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final List<Postings> postings = new ArrayList<>();
+    private final Map<String, IntList> gramTerms = new HashMap<>();
+    private long[] postIds = new long[1024];
+    private int docCount;
+    private final List<PendingPost> pending = new ArrayList<>();
+
+    private volatile boolean ready;
+
+    private record PendingPost(long id, String title, String content) {
+    }
+
+    /**
+     * Add a post during the initial build. Posts must arrive in ascending id order.
+     */
+    public void index(long postId, String title, String content) {
+        lock.writeLock().lock();
+        try {
+            indexLocked(postId, title, content);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add a newly created post. Before the initial build completes the post is held back
+     * and merged by {@link #completeBuild()}.
+     */
+    public void addLive(long postId, String title, String content) {
+        lock.writeLock().lock();
+        try {
+            if (ready) {
+                indexLocked(postId, title, content);
+            } else {
+                pending.add(new PendingPost(postId, title, content));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Merge posts created while the build was running and start serving queries.
+     */
+    public void completeBuild() {
+        lock.writeLock().lock();
+        try {
+            int built = docCount;
+            for (PendingPost post : pending) {
+                // Built ordinals are in ascending id order, so a binary search tells whether the scan already saw it
+                if (Arrays.binarySearch(postIds, 0, built, post.id()) < 0) {
+                    indexLocked(post.id(), post.title(), post.content());
+                }
+            }
+            pending.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ranked search over all words in the query.
+     *
+     * @return matching post ids, best match first, at most {@code limit}
+     */
+    public long[] search(String query, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>();
+        tokenize(query, queryTerms::add);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return new long[0];
+        }
+
+        lock.readLock().lock();
+        try {
+            IntFloatAccumulator scores = new IntFloatAccumulator(256);
+            for (String term : queryTerms) {
+                Integer exact = termIds.get(term);
+                if (exact != null) {
+                    accumulate(scores, exact, 1f);
+                }
+                if (term.length() >= GRAM) {
+                    IntList candidates = smallestGramList(term);
+                    for (int i = 0; candidates != null && i < candidates.size(); i++) {
+                        accumulateSubstringMatch(scores, candidates.get(i), term, exact);
+                    }
+                } else {
+                    // Too short for a trigram: scan the dictionary until the postings budget is spent
+                    int budget = SHORT_WORD_MAX_POSTINGS;
+                    for (int termId = 0; termId < terms.size() && budget > 0; termId++) {
+                        budget -= accumulateSubstringMatch(scores, termId, term, exact);
+                    }
+                }
+            }
+            return topK(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Returns the number of postings added
+    private int accumulate(IntFloatAccumulator scores, int termId, float weight) {
+        Postings list = postings.get(termId);
+        float idf = (float) Math.log(1 + (double) docCount / list.size());
+        float termWeight = weight * idf;
+        for (int i = 0; i < list.size(); i++) {
+            int freq = list.freq(i);
+            scores.add(list.doc(i), termWeight * TF_WEIGHTS[Math.min(freq, TF_WEIGHTS.length - 1)]);
+        }
+        return list.size();
+    }
+
+    private int accumulateSubstringMatch(IntFloatAccumulator scores, int termId, String term, Integer exact) {
+        if ((exact == null || termId != exact) && terms.get(termId).contains(term)) {
+            return accumulate(scores, termId, SUBSTRING_MATCH_WEIGHT);
+        }
+        return 0;
+    }
+
+    // Every term containing the query word also contains each of its trigrams; scan the rarest one
+    private IntList smallestGramList(String term) {
+        IntList smallest = null;
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            IntList list = gramTerms.get(term.substring(i, i + GRAM));
+            if (list == null) {
+                return null;
+            }
+            if (smallest == null || list.size() < smallest.size()) {
+                smallest = list;
+            }
+        }
+        return smallest;
+    }
+
+    private long[] topK(IntFloatAccumulator scores, int limit) {
+        // Min-heap on score, ties broken towards newer posts
+        PriorityQueue<long[]> heap = new PriorityQueue<>(limit + 1, (a, b) -> {
+            int byScore = Float.compare(Float.intBitsToFloat((int) a[0]), Float.intBitsToFloat((int) b[0]));
+            return byScore != 0 ? byScore : Long.compare(a[1], b[1]);
+        });
+        scores.forEach((doc, score) -> {
+            if (heap.size() < limit) {
+                heap.add(new long[]{Float.floatToIntBits(score), doc});
+                return;
+            }
+            long[] weakest = heap.peek();
+            float weakestScore = Float.intBitsToFloat((int) weakest[0]);
+            // Only allocate for entries that actually displace the current weakest
+            if (score > weakestScore || (score == weakestScore && doc > weakest[1])) {
+                heap.poll();
+                heap.add(new long[]{Float.floatToIntBits(score), doc});
+            }
+        });
+
+        long[] result = new long[heap.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = postIds[(int) heap.poll()[1]];
+        }
+        return result;
+    }
+
+    private void indexLocked(long postId, String title, String content) {
+        int doc = docCount++;
+        if (doc == postIds.length) {
+            postIds = Arrays.copyOf(postIds, postIds.length * 2);
+        }
+        postIds[doc] = postId;
+
+        Map<String, Integer> freqs = new HashMap<>();
+        tokenize(title, term -> freqs.merge(term, TITLE_WEIGHT, Integer::sum));
+        tokenize(content, term -> freqs.merge(term, 1, Integer::sum));
+        freqs.forEach((term, freq) -> {
+            Integer termId = termIds.get(term);
+            if (termId == null) {
+                termId = newTerm(term);
+            }
+            postings.get(termId).add(doc, freq);
+        });
+    }
+
+    private int newTerm(String term) {
+        int termId = terms.size();
+        terms.add(term);
+        postings.add(new Postings());
+        termIds.put(term, termId);
+        for (int i = 0; i + GRAM <= term.length(); i++) {
+            gramTerms.computeIfAbsent(term.substring(i, i + GRAM), gram -> new IntList()).add(termId);
+        }
+        return termId;
+    }
+
+    // Lower-cased runs of letters and digits
+    static void tokenize(String text, Consumer<String> sink) {
+        if (text == null) {
+            return;
+        }
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                token.append(Character.toLowerCase(c));
+            } else if (!token.isEmpty()) {
+                sink.accept(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (!token.isEmpty()) {
+            sink.accept(token.toString());
+        }
+    }
+}
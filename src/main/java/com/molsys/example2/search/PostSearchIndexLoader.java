@@ -0,0 +1,55 @@
+package com.molsys.example2.search;
+
+import com.molsys.example2.Repository.PostRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Builds the post search index from the database once the application is up.
+ * Runs on a background thread; until it finishes, search falls back to the repository query.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PostSearchIndexLoader {
+
+    private final PostRepository postRepository;
+    private final PostSearchIndex searchIndex;
+
+    @Value("${app.search.index.build-batch-size:5000}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread builder = new Thread(this::build, "post-search-index-build");
+        builder.setDaemon(true);
+        builder.start();
+    }
+
+    void build() {
+        long start = System.currentTimeMillis();
+        try {
+            long lastId = 0;
+            List<PostRepository.PostText> batch;
+            do {
+                batch = postRepository.findTextAfter(lastId, Limit.of(batchSize));
+                for (PostRepository.PostText post : batch) {
+                    searchIndex.index(post.getId(), post.getTitle(), post.getContent());
+                    lastId = post.getId();
+                }
+            } while (batch.size() == batchSize);
+
+            searchIndex.completeBuild();
+            log.info("Post search index built: {} posts in {} ms", searchIndex.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Failed to build post search index; search stays on the database", e);
+        }
+    }
+}
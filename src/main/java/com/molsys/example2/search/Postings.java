@@ -0,0 +1,36 @@
+package com.molsys.example2.search;
+
+import java.util.Arrays;
+
+/**
+ * Posting list for one term: parallel primitive arrays of document ordinals and term frequencies.
+ */
+final class Postings {
+
+    private int[] docs = new int[4];
+    private int[] freqs = new int[4];
+    private int size;
+
+    void add(int doc, int freq) {
+        if (size == docs.length) {
+            int capacity = size + (size >> 1) + 1;
+            docs = Arrays.copyOf(docs, capacity);
+            freqs = Arrays.copyOf(freqs, capacity);
+        }
+        docs[size] = doc;
+        freqs[size] = freq;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int doc(int i) {
+        return docs[i];
+    }
+
+    int freq(int i) {
+        return freqs[i];
+    }
+}
@@ -0,0 +1,111 @@
+package com.molsys.example2.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles the unauthenticated auth endpoints by client IP and by target email,
+ * before any database or password-hashing work is done.
+ */
+@Component
+public class AuthRateLimitFilter extends OncePerRequestFilter {
+
+    private static final Set<String> LIMITED_PATHS = Set.of(
+            "/api/auth/login", "/api/auth/register", "/api/auth/forgot-password");
+
+    // Auth payloads are tiny; anything larger is not worth buffering
+    private static final int MAX_BODY_BYTES = 8 * 1024;
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final TokenBucketRateLimiter perIp;
+    private final TokenBucketRateLimiter perEmail;
+
+    public AuthRateLimitFilter(ObjectMapper objectMapper,
+                               @Value("${auth.rate-limit.enabled:true}") boolean enabled,
+                               @Value("${auth.rate-limit.per-ip.burst:20}") int ipBurst,
+                               @Value("${auth.rate-limit.per-ip.per-minute:30}") int ipPerMinute,
+                               @Value("${auth.rate-limit.per-email.burst:5}") int emailBurst,
+                               @Value("${auth.rate-limit.per-email.per-minute:5}") int emailPerMinute,
+                               @Value("${auth.rate-limit.max-keys:100000}") long maxKeys) {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.perIp = new TokenBucketRateLimiter(ipBurst, ipPerMinute, maxKeys);
+        this.perEmail = new TokenBucketRateLimiter(emailBurst, emailPerMinute, maxKeys);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !"POST".equals(request.getMethod()) || !LIMITED_PATHS.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long waitNanos = perIp.tryAcquire(request.getRemoteAddr());
+        if (waitNanos > 0) {
+            reject(response, waitNanos);
+            return;
+        }
+
+        byte[] body = readBody(request);
+        if (body == null) {
+            writeError(response, HttpStatus.PAYLOAD_TOO_LARGE);
+            return;
+        }
+
+        String email = extractEmail(body);
+        if (email != null) {
+            waitNanos = perEmail.tryAcquire(email);
+            if (waitNanos > 0) {
+                reject(response, waitNanos);
+                return;
+            }
+        }
+
+        filterChain.doFilter(new CachedBodyHttpServletRequest(request, body), response);
+    }
+
+    private byte[] readBody(HttpServletRequest request) throws IOException {
+        InputStream in = request.getInputStream();
+        byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+        return body.length > MAX_BODY_BYTES ? null : body;
+    }
+
+    private String extractEmail(byte[] body) {
+        try {
+            JsonNode email = objectMapper.readTree(body).get("email");
+            return email != null && email.isTextual() ? email.asText().trim().toLowerCase(Locale.ROOT) : null;
+        } catch (IOException e) {
+            // Malformed JSON is rejected by the controller; only the IP limit applies
+            return null;
+        }
+    }
+
+    private void reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        writeError(response, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    // Written directly: sendError() would forward to /error, which the security chain answers with 401
+    private void writeError(HttpServletResponse response, HttpStatus status) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(status.getReasonPhrase());
+    }
+}
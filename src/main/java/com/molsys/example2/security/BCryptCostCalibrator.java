@@ -0,0 +1,43 @@
+package com.molsys.example2.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Picks the BCrypt cost for this machine so one hash takes roughly the target latency.
+ * Each extra cost step doubles the work, so a single measurement at the minimum cost is enough.
+ */
+@Slf4j
+public final class BCryptCostCalibrator {
+
+    private static final String PROBE = "calibration-probe-password";
+
+    private BCryptCostCalibrator() {
+    }
+
+    public static int calibrate(Duration targetLatency, int minStrength, int maxStrength) {
+        // Warm up the JIT so the measurement reflects steady-state speed
+        BCryptPasswordEncoder warmup = new BCryptPasswordEncoder(4);
+        for (int i = 0; i < 20; i++) {
+            warmup.encode(PROBE);
+        }
+
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        long start = System.nanoTime();
+        probe.encode(PROBE);
+        long elapsedNanos = Math.max(1, System.nanoTime() - start);
+
+        int strength = minStrength;
+        long projected = elapsedNanos;
+        while (strength < maxStrength && projected * 2 <= targetLatency.toNanos()) {
+            projected *= 2;
+            strength++;
+        }
+
+        log.info("BCrypt cost calibrated to {} (~{} ms per hash, target {} ms)",
+                strength, projected / 1_000_000, targetLatency.toMillis());
+        return strength;
+    }
+}
@@ -1,14 +1,14 @@
 package com.molsys.example2.security;
 
-import com.molsys.example2.Entity.User;
-import com.molsys.example2.Repository.UserRepository;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -19,13 +19,34 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final VerifiedTokenCache tokenCache;
+    private final UserPrincipalCache principalCache;
+    private final MeterRegistry meterRegistry;
+    private final Timer validationSuccess;
+    private final Timer validationFailure;
+
+    public JwtAuthenticationFilter(JwtService jwtService, VerifiedTokenCache tokenCache,
+                                   UserPrincipalCache principalCache, MeterRegistry meterRegistry) {
+        this.jwtService = jwtService;
+        this.tokenCache = tokenCache;
+        this.principalCache = principalCache;
+        this.meterRegistry = meterRegistry;
+        // Only cache misses reach verify(); hits show up in the jwt-tokens cache metrics
+        this.validationSuccess = Timer.builder("jwt.validation")
+                .description("Signature verification and claims parsing of access tokens")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.validationFailure = Timer.builder("jwt.validation")
+                .description("Signature verification and claims parsing of access tokens")
+                .tag("outcome", "failure")
+                .register(meterRegistry);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -35,19 +56,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
             if (StringUtils.hasText(jwt)) {
                 try {
-                    Jws<Claims> claims = jwtService.validateAccessToken(jwt);
-                    Claims body = claims.getBody();
+                    // Full signature check and claims parse only on a cache miss
+                    VerifiedTokenCache.VerifiedToken verified = tokenCache.getOrVerify(jwt, this::verify);
 
-                    Long userId = body.get("id", Integer.class).longValue();
-                    String role = body.get("role", String.class);
+                    Long userId = verified.userId();
+                    String role = verified.role();
 
-                    // Find user by ID (optional, depending on your auth needs)
-                    User user = userRepository.findById(userId).orElse(null);
+                    // Resolve the principal from the in-process cache; the database is only hit on a miss
+                    UserPrincipal principal = principalCache.getPrincipal(userId, role);
 
-                    if (user != null) {
+                    if (principal != null) {
                         // Set up the authentication context
                         UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                                user.getEmail(), null,
+                                principal, null,
                                 Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
                         );
 
@@ -66,6 +87,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private VerifiedTokenCache.VerifiedToken verify(String jwt) {
+        long start = System.nanoTime();
+        Jws<Claims> claims;
+        try {
+            claims = jwtService.validateAccessToken(jwt);
+        } catch (RuntimeException e) {
+            validationFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            // Reason is the jjwt exception type (ExpiredJwtException, SignatureException, ...), a small fixed set
+            Counter.builder("jwt.validation.failures")
+                    .description("Access tokens rejected during validation")
+                    .tag("reason", e.getClass().getSimpleName())
+                    .register(meterRegistry)
+                    .increment();
+            throw e;
+        }
+        validationSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        Claims body = claims.getBody();
+        return new VerifiedTokenCache.VerifiedToken(
+                body.get("id", Integer.class).longValue(),
+                body.get("role", String.class),
+                body.getExpiration().toInstant()
+        );
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -0,0 +1,133 @@
+package com.molsys.example2.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set of HMAC signing keys derived once from configured secrets.
+ * The first secret is the active one used for signing; the rest are only accepted
+ * for verification so that a secret can be rotated without invalidating live tokens.
+ * Instances are immutable and safe to share between request threads.
+ */
+public final class JwtKeyRing {
+
+    private final String activeKid;
+    private final SecretKey activeKey;
+    private final Map<String, SecretKey> keysByKid;
+    private final JwtParser parser;
+
+    private JwtKeyRing(String activeKid, Map<String, SecretKey> keysByKid) {
+        this.activeKid = activeKid;
+        this.activeKey = keysByKid.get(activeKid);
+        this.keysByKid = Collections.unmodifiableMap(keysByKid);
+        // Built once; JwtParser instances from parserBuilder() are immutable and thread-safe
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveKey(header.getKeyId());
+                    }
+                })
+                .build();
+    }
+
+    public static JwtKeyRing of(String activeSecret, List<String> previousSecrets) {
+        Map<String, SecretKey> keys = new LinkedHashMap<>();
+        SecretKey active = deriveKey(activeSecret);
+        String activeKid = keyId(active);
+        keys.put(activeKid, active);
+        for (String secret : previousSecrets) {
+            if (secret != null && !secret.isBlank()) {
+                SecretKey key = deriveKey(secret.trim());
+                keys.putIfAbsent(keyId(key), key);
+            }
+        }
+        return new JwtKeyRing(activeKid, keys);
+    }
+
+    public String getActiveKid() {
+        return activeKid;
+    }
+
+    public int size() {
+        return keysByKid.size();
+    }
+
+    // Stamp the active kid and sign with the active key
+    public String sign(JwtBuilder builder) {
+        return builder
+                .setHeaderParam(JwsHeader.KEY_ID, activeKid)
+                .signWith(activeKey)
+                .compact();
+    }
+
+    public Jws<Claims> parse(String token) {
+        return parser.parseClaimsJws(token);
+    }
+
+    private Key resolveKey(String kid) {
+        // Tokens issued before key ids were introduced carry no kid; they were signed with the active secret
+        if (kid == null) {
+            return activeKey;
+        }
+        SecretKey key = keysByKid.get(kid);
+        if (key == null) {
+            throw new SignatureException("Unknown signing key id: " + kid);
+        }
+        return key;
+    }
+
+    static SecretKey deriveKey(String secret) {
+        byte[] keyBytes = Base64.getDecoder().decode(getSecureBase64Key(secret));
+        return Keys.hmacShaKeyFor(keyBytes);
+    }
+
+    // Ensure the key is properly formatted and of sufficient length
+    static String getSecureBase64Key(String originalKey) {
+        // If the key is already Base64 and of sufficient length, use it
+        // Otherwise, pad it to ensure it's at least 256 bits (32 bytes) when decoded
+        try {
+            byte[] decodedKey = Base64.getDecoder().decode(originalKey);
+            if (decodedKey.length >= 32) {
+                return originalKey;
+            }
+        } catch (IllegalArgumentException e) {
+            // Not a valid Base64 string, will create a new one
+        }
+
+        // Create a key that's at least 256 bits
+        String paddedKey = originalKey;
+        while (paddedKey.getBytes(StandardCharsets.UTF_8).length < 32) {
+            paddedKey += originalKey;
+        }
+        return Base64.getEncoder().encodeToString(paddedKey.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Short, non-reversible identifier derived from the key material
+    private static String keyId(SecretKey key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getEncoded());
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 11);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
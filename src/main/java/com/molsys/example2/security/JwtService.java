@@ -1,10 +1,8 @@
 package com.molsys.example2.security;
 
-import java.nio.charset.StandardCharsets;
-import java.util.Base64;
+import java.util.Arrays;
 import java.util.Date;
-
-import javax.crypto.SecretKey;
+import java.util.UUID;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -14,7 +12,7 @@ import com.molsys.example2.Entity.Role;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 @Service
 public class JwtService {
@@ -22,75 +20,54 @@ public class JwtService {
     @Value("${jwt.secret}")
     private String jwtSecret;
 
+    // Retired access-token secrets still accepted for validation during rotation
+    @Value("${jwt.previous-secrets:}")
+    private String[] jwtPreviousSecrets;
+
     @Value("${jwt.expiration}")
     private Long jwtExpirationMs;
 
     @Value("${jwt.refresh.secret}")
     private String jwtRefreshSecret;
 
+    @Value("${jwt.refresh.previous-secrets:}")
+    private String[] jwtRefreshPreviousSecrets;
+
     @Value("${jwt.refresh.expiration}")
     private Long jwtRefreshExpirationMs;
 
-    // Generate a secure SecretKey for access tokens
-    private SecretKey getAccessTokenKey() {
-        // Use the recommended method to generate a secure key
-        // This ensures the key is of proper size (256 bits or more)
-        byte[] keyBytes = Base64.getDecoder().decode(getSecureBase64Key(jwtSecret));
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
-    // Generate a secure SecretKey for refresh tokens
-    private SecretKey getRefreshTokenKey() {
-        // Use the recommended method to generate a secure key
-        byte[] keyBytes = Base64.getDecoder().decode(getSecureBase64Key(jwtRefreshSecret));
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
+    private JwtKeyRing accessKeys;
+    private JwtKeyRing refreshKeys;
 
-    // Ensure the key is properly formatted and of sufficient length
-    private String getSecureBase64Key(String originalKey) {
-        // If the key is already Base64 and of sufficient length, use it
-        // Otherwise, pad it to ensure it's at least 256 bits (32 bytes) when decoded
-        try {
-            byte[] decodedKey = Base64.getDecoder().decode(originalKey);
-            if (decodedKey.length >= 32) {
-                return originalKey;
-            }
-        } catch (IllegalArgumentException e) {
-            // Not a valid Base64 string, will create a new one
-        }
-
-        // Create a key that's at least 256 bits
-        String paddedKey = originalKey;
-        while (paddedKey.getBytes(StandardCharsets.UTF_8).length < 32) {
-            paddedKey += originalKey;
-        }
-        return Base64.getEncoder().encodeToString(paddedKey.getBytes(StandardCharsets.UTF_8));
+    // Derive keys and build parsers once instead of on every call
+    @PostConstruct
+    void initKeyRings() {
+        accessKeys = JwtKeyRing.of(jwtSecret, Arrays.asList(jwtPreviousSecrets));
+        refreshKeys = JwtKeyRing.of(jwtRefreshSecret, Arrays.asList(jwtRefreshPreviousSecrets));
     }
 
     public String generateAccessToken(Long userId, Role role) {
-        return Jwts.builder()
+        return accessKeys.sign(Jwts.builder()
                 .claim("id", userId)
                 .claim("role", role.name())
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(getAccessTokenKey())
-                .compact();
+                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs)));
     }
 
     public String generateRefreshToken(Long userId) {
-        return Jwts.builder()
+        // Unique jti: two logins in the same second would otherwise mint identical tokens, and sessions are keyed by token hash
+        return refreshKeys.sign(Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .claim("id", userId)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + jwtRefreshExpirationMs))
-                .signWith(getRefreshTokenKey())
-                .compact();
+                .setExpiration(new Date(System.currentTimeMillis() + jwtRefreshExpirationMs)));
     }
 
     public Jws<Claims> validateAccessToken(String token) {
-        return Jwts.parser().setSigningKey(getAccessTokenKey()).parseClaimsJws(token);
+        return accessKeys.parse(token);
     }
 
     public Jws<Claims> validateRefreshToken(String token) {
-        return Jwts.parser().setSigningKey(getRefreshTokenKey()).parseClaimsJws(token);
+        return refreshKeys.parse(token);
     }
-}
\ No newline at end of file
+}
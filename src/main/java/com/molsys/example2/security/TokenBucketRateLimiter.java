@@ -0,0 +1,61 @@
+package com.molsys.example2.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket per key, implemented as GCRA: each bucket is a single
+ * "theoretical arrival time" updated with CAS, so acquiring never blocks or allocates.
+ * Buckets live in a size-bounded map and are evicted once idle long enough to have
+ * refilled completely, at which point dropping them loses no state.
+ */
+public class TokenBucketRateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstWindowNanos;
+    private final Cache<String, AtomicLong> buckets;
+
+    /**
+     * @param burst      tokens available to a fresh key
+     * @param perMinute  sustained refill rate
+     * @param maxKeys    upper bound on tracked keys
+     */
+    public TokenBucketRateLimiter(int burst, int perMinute, long maxKeys) {
+        this.emissionIntervalNanos = TimeUnit.MINUTES.toNanos(1) / perMinute;
+        this.burstWindowNanos = emissionIntervalNanos * burst;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofNanos(burstWindowNanos))
+                .build();
+    }
+
+    /**
+     * Take one token for the key.
+     *
+     * @return 0 if the request is allowed, otherwise nanoseconds until a token is available
+     */
+    public long tryAcquire(String key) {
+        AtomicLong tat = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        long now = System.nanoTime();
+        while (true) {
+            long current = tat.get();
+            long start = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+            long next = start + emissionIntervalNanos;
+            long excess = next - now - burstWindowNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public long trackedKeys() {
+        return buckets.estimatedSize();
+    }
+}
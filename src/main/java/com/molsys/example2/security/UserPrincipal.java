@@ -0,0 +1,16 @@
+package com.molsys.example2.security;
+
+import java.security.Principal;
+
+/**
+ * Authenticated user as seen by controllers. Built from the access token and the
+ * cached email, so reading the current user never needs a repository lookup.
+ */
+public record UserPrincipal(Long id, String email, String role) implements Principal {
+
+    // Keeps Authentication.getName() returning the email, as before
+    @Override
+    public String getName() {
+        return email;
+    }
+}
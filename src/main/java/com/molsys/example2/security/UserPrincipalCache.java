@@ -0,0 +1,69 @@
+package com.molsys.example2.security;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.molsys.example2.cache.SingleFlight;
+import com.molsys.example2.Entity.User;
+import com.molsys.example2.Repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+
+/**
+ * In-process user id to email lookup used when authenticating requests.
+ * Entries are dropped by AuthService whenever a user's credentials or sessions change,
+ * and expire after a TTL so out-of-band changes are eventually picked up.
+ * <p>
+ * Lookups go through {@link SingleFlight}: one database read per missing user, on the calling
+ * thread, with concurrent callers waiting on it.
+ */
+@Component
+public class UserPrincipalCache implements MeterBinder {
+
+    private final UserRepository userRepository;
+    private final TransactionOperations transactions;
+    private final AsyncCache<Long, String> emailsById;
+
+    public UserPrincipalCache(UserRepository userRepository, TransactionOperations transactions,
+                              @Value("${auth.principal-cache.max-size:10000}") long maxSize,
+                              @Value("${auth.principal-cache.ttl:PT5M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.transactions = transactions;
+        this.emailsById = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Build the principal for a verified token, or return null if the user no longer exists.
+     */
+    public UserPrincipal getPrincipal(Long userId, String role) {
+        String email = emailFor(userId);
+        return email != null ? new UserPrincipal(userId, email, role) : null;
+    }
+
+    public void invalidate(Long userId) {
+        if (userId != null) {
+            emailsById.synchronous().invalidate(userId);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, emailsById.synchronous(), "user-principals");
+    }
+
+    private String emailFor(Long userId) {
+        // Unknown users load as null, which is not cached, so a later registration with a reused id is still seen.
+        // Read-write so it is served by the primary: the user may have registered a moment ago.
+        return SingleFlight.getOrLoad(emailsById, userId, id ->
+                transactions.execute(status -> userRepository.findById(id).map(User::getEmail).orElse(null)));
+    }
+}
@@ -0,0 +1,87 @@
+package com.molsys.example2.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of access tokens that already passed signature verification.
+ * Keys are SHA-256 digests of the raw token so the token itself is never held in memory,
+ * and every entry expires no later than the token's own {@code exp}.
+ */
+@Component
+public class VerifiedTokenCache implements MeterBinder {
+
+    public record VerifiedToken(Long userId, String role, Instant expiresAt) {
+    }
+
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(@Value("${jwt.cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), value.expiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Return the cached verification result for the token, or run the verifier and cache its result.
+     * Exceptions from the verifier propagate and nothing is cached.
+     */
+    public VerifiedToken getOrVerify(String token, Function<String, VerifiedToken> verifier) {
+        return cache.get(digest(token), key -> verifier.apply(token));
+    }
+
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    // Hit ratio here is the share of requests that skip signature verification
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "jwt-tokens");
+    }
+
+    private static String digest(String token) {
+        return Base64.getEncoder().withoutPadding().encodeToString(TokenDigests.sha256(token));
+    }
+}
@@ -1,16 +1,22 @@
 package com.molsys.example2.service;
 
+import com.molsys.example2.Entity.RefreshSession;
 import com.molsys.example2.Entity.Role;
 import com.molsys.example2.Entity.User;
+import com.molsys.example2.Repository.RefreshSessionRepository;
 import com.molsys.example2.Repository.UserRepository;
 import com.molsys.example2.dto.*;
 import com.molsys.example2.security.JwtService;
+import com.molsys.example2.security.TokenDigests;
+import com.molsys.example2.security.UserPrincipalCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.time.Instant;
 import java.util.Objects;
@@ -26,19 +32,22 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final EmailService emailService;
+    private final UserPrincipalCache principalCache;
+    private final RefreshSessionRepository sessionRepo;
+    // Runs lookups of rows that may have been written a moment ago as read-write, so they hit the primary
+    private final TransactionOperations transactions;
 
     // Token expiry time - 15 minutes
     private static final long PASSWORD_RESET_TOKEN_EXPIRY = 15 * 60 * 1000;
 
-    public AuthResponse register(AuthRequest request) {
-        if (userRepo.findByEmail(request.getEmail()).isPresent()) {
-            throw new RuntimeException("User already exists");
-        }
+    // Refresh session lifetime - 7 days
+    private static final long REFRESH_TOKEN_EXPIRY = 7L * 24 * 60 * 60 * 1000;
 
+    public AuthResponse register(AuthRequest request) {
         // Use the role from request if provided, otherwise default to USER
         Role userRole = (request.getRole() != null) ? request.getRole() : Role.USER;
 
-        // Save user first to get a generated ID
+        // Single insert; the generated ID comes back with it
         User user = User.builder()
                 .email(request.getEmail())
                 .name("User")
@@ -46,33 +55,44 @@ public class AuthService {
                 .role(userRole) // Use the role from request or default
                 .build();
 
-        user = userRepo.save(user); // Save to assign ID
+        try {
+            // The unique index on email rejects duplicates, no pre-check query needed
+            user = userRepo.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // Only the email index means a duplicate; other violations (lengths, NOT NULL) propagate
+            if (Boolean.TRUE.equals(transactions.execute(status -> userRepo.existsByEmail(request.getEmail())))) {
+                throw new RuntimeException("User already exists");
+            }
+            throw e;
+        }
 
         // Now generate tokens using saved user
         String accessToken = jwtService.generateAccessToken(user.getId(), user.getRole());
         String refreshToken = jwtService.generateRefreshToken(user.getId());
-
-        user.setRefreshToken(refreshToken);
-        user.setRefreshTokenExpiry(Instant.now().plusMillis(7 * 24 * 60 * 60 * 1000));
-        userRepo.save(user); // Save refresh token and expiry
+        startSession(user.getId(), refreshToken);
 
         return new AuthResponse(accessToken, refreshToken, user.getRole().name());
     }
 
     public AuthResponse login(AuthRequest request) {
-        User user = userRepo.findByEmail(request.getEmail())
+        User user = transactions.execute(status -> userRepo.findByEmail(request.getEmail()))
                 .orElseThrow(() -> new RuntimeException("Invalid credentials"));
 
         if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
             throw new RuntimeException("Invalid credentials");
         }
 
+        // Transparently upgrade hashes created with a lower BCrypt cost
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            user.setPassword(passwordEncoder.encode(request.getPassword()));
+            userRepo.save(user);
+        }
+
         String accessToken = jwtService.generateAccessToken(user.getId(), user.getRole());
         String refreshToken = jwtService.generateRefreshToken(user.getId());
 
-        user.setRefreshToken(refreshToken);
-        user.setRefreshTokenExpiry(Instant.now().plusMillis(7 * 24 * 60 * 60 * 1000));
-        userRepo.save(user);
+        // One insert per login; the user row is left untouched
+        startSession(user.getId(), refreshToken);
 
         return new AuthResponse(accessToken, refreshToken, user.getRole().name());
     }
@@ -81,24 +101,34 @@ public class AuthService {
         var claims = jwtService.validateRefreshToken(token).getBody();
         Long userId = claims.get("id", Integer.class).longValue();
 
-        User user = userRepo.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
-        if (!token.equals(user.getRefreshToken())) {
+        RefreshSession session = transactions.execute(status -> sessionRepo.findByTokenHash(TokenDigests.sha256Hex(token)))
+                .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
+        if (!session.getUserId().equals(userId) || session.getExpiresAt().isBefore(Instant.now())) {
             throw new RuntimeException("Invalid refresh token");
         }
 
+        User user = transactions.execute(status -> userRepo.findById(userId))
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
         String newAccess = jwtService.generateAccessToken(user.getId(), user.getRole());
         return new AuthResponse(newAccess, token, user.getRole().name());
     }
 
     public void logout(String refreshToken) {
-        Optional<User> user = userRepo.findByRefreshToken(refreshToken);
-        user.ifPresent(u -> {
-            u.setRefreshToken(null);
-            u.setRefreshTokenExpiry(null);
-            userRepo.save(u);
+        Optional<RefreshSession> session = transactions.execute(status ->
+                sessionRepo.findByTokenHash(TokenDigests.sha256Hex(refreshToken)));
+        session.ifPresent(s -> {
+            sessionRepo.delete(s);
+            principalCache.invalidate(s.getUserId());
         });
     }
 
+    // Sign out every device of the user
+    public void logoutAll(Long userId) {
+        sessionRepo.deleteByUserId(userId);
+        principalCache.invalidate(userId);
+    }
+
     public void changePassword(String email, PasswordChangeRequest request) {
         // Validate request
         if (request.getNewPassword() == null || request.getNewPassword().trim().isEmpty()) {
@@ -110,7 +140,7 @@ public class AuthService {
         }
 
         // Find user
-        User user = userRepo.findByEmail(email)
+        User user = transactions.execute(status -> userRepo.findByEmail(email))
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
         // Verify current password
@@ -126,12 +156,12 @@ public class AuthService {
         // Update password
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
 
-        // Invalidate refresh tokens for security
-        user.setRefreshToken(null);
-        user.setRefreshTokenExpiry(null);
-
         // Save changes
         userRepo.save(user);
+
+        // Invalidate refresh tokens on all devices for security
+        sessionRepo.deleteByUserId(user.getId());
+        principalCache.invalidate(user.getId());
     }
 
     // Password Reset Methods
@@ -147,7 +177,7 @@ public class AuthService {
                 user.setPasswordResetTokenExpiry(Instant.now().plusMillis(PASSWORD_RESET_TOKEN_EXPIRY));
                 userRepo.save(user);
 
-                // Send email with reset link
+                // Queue email with reset link; delivered asynchronously from the outbox
                 emailService.sendPasswordResetEmail(user.getEmail(), token);
                 log.info("Password reset initiated for user: {}", email);
             } catch (Exception e) {
@@ -186,13 +216,23 @@ public class AuthService {
         // Clear reset token and invalidate any existing sessions for security
         user.setPasswordResetToken(null);
         user.setPasswordResetTokenExpiry(null);
-        user.setRefreshToken(null);
-        user.setRefreshTokenExpiry(null);
 
         userRepo.save(user);
+        sessionRepo.deleteByUserId(user.getId());
+        principalCache.invalidate(user.getId());
         log.info("Password reset completed for user: {}", user.getEmail());
     }
 
+    private void startSession(Long userId, String refreshToken) {
+        Instant now = Instant.now();
+        sessionRepo.save(RefreshSession.builder()
+                .tokenHash(TokenDigests.sha256Hex(refreshToken))
+                .userId(userId)
+                .createdAt(now)
+                .expiresAt(now.plusMillis(REFRESH_TOKEN_EXPIRY))
+                .build());
+    }
+
     private String generatePasswordResetToken() {
         return UUID.randomUUID().toString();
     }
@@ -0,0 +1,46 @@
+package com.molsys.example2.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Version counters for the polled collections, exposed as strong ETags. Writers bump a
+ * counter after their commit; readers take the ETag before querying, so a 304 is never
+ * sent for data the client has not seen.
+ * <p>
+ * Per-post comment versions live in a fixed array of striped counters: two posts sharing a
+ * stripe only cost an occasional unnecessary 200, never a stale 304. A random epoch keeps
+ * ETags from a previous process from matching after a restart.
+ */
+@Component
+public class CollectionVersions {
+
+    private static final int COMMENT_STRIPES = 1 << 14;
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final LongAdder posts = new LongAdder();
+    private final AtomicLongArray comments = new AtomicLongArray(COMMENT_STRIPES);
+
+    public void postsChanged() {
+        posts.increment();
+    }
+
+    public void commentsChanged(long postId) {
+        comments.incrementAndGet(stripe(postId));
+    }
+
+    public String postsETag() {
+        return "\"posts-" + epoch + "-" + posts.sum() + "\"";
+    }
+
+    public String commentsETag(long postId) {
+        return "\"comments-" + postId + "-" + epoch + "-" + comments.get(stripe(postId)) + "\"";
+    }
+
+    private static int stripe(long postId) {
+        return Long.hashCode(postId * 0x9E3779B97F4A7C15L) & (COMMENT_STRIPES - 1);
+    }
+}
@@ -0,0 +1,135 @@
+package com.molsys.example2.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live comment counts per post. Writers bump striped {@link LongAdder}s, so comments on one
+ * hot post contend on neither a lock nor a database row. Pending deltas are added to
+ * {@code post.comment_count} in JDBC batches on a schedule. At startup, before the
+ * application takes traffic, the column is loaded into memory.
+ * <p>
+ * Counts are per instance: each node sees its own comments immediately and other nodes'
+ * after its next restart. The column stays exact because every node only ever adds its own
+ * deltas. The optional startup recount breaks that while another node holds unflushed
+ * deltas for comments already in the table, so it is a one-off for a single node, e.g.
+ * when the column is first added.
+ */
+@Component
+@Slf4j
+public class CommentCounters implements SmartInitializingSingleton {
+
+    private static final String RECOUNT = "update post p set comment_count = "
+            + "(select count(*) from comment c where c.post_id = p.id) where p.id > ? and p.id <= ?";
+    private static final String ADD = "update post set comment_count = comment_count + ? where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConcurrentHashMap<Long, Counter> counters = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final boolean rebuildOnStartup;
+    private final int rebuildChunkSize;
+    private final int flushBatchSize;
+
+    private record Counter(LongAdder total, LongAdder unflushed) {
+    }
+
+    public CommentCounters(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                           @Value("${app.comments.count.rebuild-on-startup:false}") boolean rebuildOnStartup,
+                           @Value("${app.comments.count.rebuild-chunk-size:10000}") int rebuildChunkSize,
+                           @Value("${app.comments.count.flush-batch-size:500}") int flushBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildOnStartup = rebuildOnStartup;
+        this.rebuildChunkSize = rebuildChunkSize;
+        this.flushBatchSize = flushBatchSize;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.currentTimeMillis();
+        if (rebuildOnStartup) {
+            recount();
+        }
+        jdbcTemplate.query("select id, comment_count from post where comment_count > 0",
+                (RowCallbackHandler) row -> counter(row.getLong(1)).total().add(row.getLong(2)));
+        log.info("Comment counters loaded for {} posts in {} ms", counters.size(), System.currentTimeMillis() - start);
+    }
+
+    // Each chunk commits on its own, so no statement holds row locks for long
+    private void recount() {
+        Long maxId = jdbcTemplate.queryForObject("select max(id) from post", Long.class);
+        if (maxId == null) {
+            return;
+        }
+        for (long from = 0; from < maxId; from += rebuildChunkSize) {
+            jdbcTemplate.update(RECOUNT, from, Math.min(from + rebuildChunkSize, maxId));
+        }
+    }
+
+    public long count(long postId) {
+        Counter counter = counters.get(postId);
+        return counter != null ? counter.total().sum() : 0;
+    }
+
+    /**
+     * Record committed comments; they reach the database with the next flush.
+     */
+    public void added(long postId, long comments) {
+        Counter counter = counter(postId);
+        counter.total().add(comments);
+        counter.unflushed().add(comments);
+        dirty.add(postId);
+    }
+
+    private Counter counter(long postId) {
+        Counter counter = counters.get(postId);
+        return counter != null ? counter : counters.computeIfAbsent(postId, id -> new Counter(new LongAdder(), new LongAdder()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.comments.count.flush-interval-ms:1000}")
+    public void flush() {
+        List<Object[]> rows = new ArrayList<>();
+        // Sorted so concurrent flushes from several nodes lock rows in the same order
+        for (Long postId : dirty.stream().sorted().toList()) {
+            // Removed before draining: a comment added meanwhile marks the post dirty again
+            dirty.remove(postId);
+            long delta = counters.get(postId).unflushed().sumThenReset();
+            if (delta != 0) {
+                rows.add(new Object[]{delta, postId});
+            }
+        }
+        for (int from = 0; from < rows.size(); from += flushBatchSize) {
+            List<Object[]> chunk = rows.subList(from, Math.min(from + flushBatchSize, rows.size()));
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(ADD, chunk));
+            } catch (RuntimeException e) {
+                log.warn("Comment count flush of {} posts failed, retrying next run: {}", chunk.size(), e.getMessage());
+                for (Object[] row : chunk) {
+                    Long postId = (Long) row[1];
+                    counters.get(postId).unflushed().add((Long) row[0]);
+                    dirty.add(postId);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+}
@@ -2,21 +2,115 @@ package com.molsys.example2.service;
 
 import com.molsys.example2.Entity.Comment;
 import com.molsys.example2.Repository.CommentRepository;
+import com.molsys.example2.Repository.PostRepository;
+import com.molsys.example2.config.RecentWriters;
+import com.molsys.example2.dto.CommentResponse;
+import com.molsys.example2.dto.CursorPage;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class CommentService {
+    // Keeps each IN list well below driver and planner limits
+    private static final int IN_CHUNK_SIZE = 100;
+
+    // The cached head holds one extra comment to tell whether a next page exists
+    public static final int MAX_PAGE_SIZE = PostReadCache.COMMENT_HEAD_SIZE - 1;
+
     private final CommentRepository commentRepository;
+    private final PostRepository postRepository;
+    private final PostReadCache readCache;
+    private final CollectionVersions versions;
+    private final CommentCounters counters;
+    private final RecentWriters recentWriters;
+    // Cache loads and ETag-guarded pages run read-write so they hit the primary and never pin a lagging replica's view
+    private final TransactionOperations transactions;
+
+    /**
+     * One keyset page of a post's comments, oldest or newest first, with the post's comment
+     * count. A null {@code cursorId} starts at the first comment in that direction; first pages
+     * come from the cache. Returns null when the post does not exist.
+     */
+    public CursorPage<CommentResponse> getCommentPage(Long postId, boolean newestFirst, Long cursorId, int size) {
+        List<CommentResponse> rows;
+        if (cursorId == null) {
+            rows = readCache.getCommentHead(postId, newestFirst,
+                    () -> transactions.execute(status -> loadHead(postId, newestFirst)));
+            if (rows == null) {
+                return null;
+            }
+        } else {
+            // On the primary like the head: the page is served under an ETag taken before the query
+            rows = transactions.execute(status -> newestFirst
+                    ? commentRepository.findPageBefore(postId, cursorId, Limit.of(size + 1))
+                    : commentRepository.findPageAfter(postId, cursorId, Limit.of(size + 1)));
+        }
+        boolean hasMore = rows.size() > size;
+        List<CommentResponse> items = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? CursorPage.encodeCursor(items.get(items.size() - 1).getId()) : null;
+        return new CursorPage<>(items, nextCursor, counters.count(postId));
+    }
+
+    private List<CommentResponse> loadHead(Long postId, boolean newestFirst) {
+        Limit limit = Limit.of(PostReadCache.COMMENT_HEAD_SIZE);
+        List<CommentResponse> head = newestFirst
+                ? commentRepository.findPageBefore(postId, Long.MAX_VALUE, limit)
+                : commentRepository.findPageAfter(postId, 0L, limit);
+        // Only an empty head needs to tell a post without comments from a missing post
+        return !head.isEmpty() || postRepository.existsById(postId) ? head : null;
+    }
 
-    public List<Comment> getCommentsByPostId(Long postId) {
-        return commentRepository.findByPostId(postId);
+    /**
+     * Comments of several posts, oldest first, at most {@code perPost} per post.
+     * Every requested post has an entry, in request order, even when it has no comments.
+     */
+    public Map<Long, List<CommentResponse>> getCommentsByPostIds(Collection<Long> postIds, int perPost) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(postIds));
+        Map<Long, List<CommentResponse>> byPost = new LinkedHashMap<>();
+        ids.forEach(id -> byPost.put(id, new ArrayList<>()));
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size()));
+            for (CommentResponse comment : commentRepository.findFirstResponsesByPostIdIn(chunk, perPost)) {
+                byPost.get(comment.getPostId()).add(comment);
+            }
+        }
+        return byPost;
     }
 
     public Comment addComment(Comment comment) {
-        return commentRepository.save(comment);
+        Comment saved = commentRepository.save(comment);
+        // save() has committed, so the cached heads and counts can be brought up to date
+        cacheAdded(saved);
+        return saved;
+    }
+
+    // saveAll() runs in one transaction, so the inserts go out as JDBC batches
+    public List<Comment> addComments(List<Comment> comments) {
+        List<Comment> saved = commentRepository.saveAll(comments);
+        saved.forEach(this::cacheAdded);
+        return saved;
+    }
+
+    private void cacheAdded(Comment saved) {
+        Long authorId = saved.getUser() != null ? saved.getUser().getId() : null;
+        recentWriters.wrote(authorId);
+        if (saved.getPost() != null) {
+            readCache.commentAdded(new CommentResponse(saved.getId(), saved.getMessage(), saved.getPost().getId(),
+                    authorId));
+            counters.added(saved.getPost().getId(), 1);
+            versions.commentsChanged(saved.getPost().getId());
+            // Post listings carry the count too
+            versions.postsChanged();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,222 @@
+package com.molsys.example2.service;
+
+import com.molsys.example2.Entity.Comment;
+import com.molsys.example2.dto.CommentResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Write-behind ingestion for comments. Accepted comments go into a bounded queue and a
+ * single writer thread saves them in group-committed batches: up to {@code max-batch}
+ * comments, or whatever arrived within {@code max-delay} of the first one. One writer and
+ * a FIFO queue keep comments of the same post in arrival order. When the queue stays full
+ * for {@code offer-timeout}, submissions fail with 503.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.comments.write-behind.enabled", havingValue = "true")
+public class CommentWriteBehind {
+
+    private final CommentService commentService;
+    private final BlockingQueue<Pending> queue;
+    private final int maxBatch;
+    private final long maxDelayNanos;
+    private final Duration offerTimeout;
+    private final Duration ackTimeout;
+    private final Thread writer;
+    private final Timer flushTimer;
+    private final Counter rejected;
+    private final Counter failed;
+
+    private volatile boolean running = true;
+
+    private record Pending(String provisionalId, Comment comment, CompletableFuture<CommentResponse> persisted) {
+    }
+
+    /**
+     * A queued comment. {@code persisted} completes once its batch has committed.
+     */
+    public record Accepted(String provisionalId, CompletableFuture<CommentResponse> persisted) {
+    }
+
+    public CommentWriteBehind(CommentService commentService,
+                              @Value("${app.comments.write-behind.queue-capacity:10000}") int queueCapacity,
+                              @Value("${app.comments.write-behind.max-batch:200}") int maxBatch,
+                              @Value("${app.comments.write-behind.max-delay:PT0.005S}") Duration maxDelay,
+                              @Value("${app.comments.write-behind.offer-timeout:PT0.05S}") Duration offerTimeout,
+                              @Value("${app.comments.write-behind.ack-timeout:PT2S}") Duration ackTimeout,
+                              MeterRegistry meterRegistry) {
+        this.commentService = commentService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatch = maxBatch;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.offerTimeout = offerTimeout;
+        this.ackTimeout = ackTimeout;
+        this.writer = new Thread(this::run, "comment-writer");
+        this.writer.setDaemon(true);
+
+        this.flushTimer = Timer.builder("comments.write-behind.flush")
+                .description("Time to commit one batch of queued comments")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("comments.write-behind.rejected")
+                .description("Comments refused because the ingestion queue was full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("comments.write-behind.failed")
+                .description("Queued comments that could not be saved")
+                .register(meterRegistry);
+        Gauge.builder("comments.write-behind.queue.size", queue, BlockingQueue::size)
+                .description("Comments accepted but not yet written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        writer.start();
+    }
+
+    public Accepted submit(Comment comment) {
+        Pending pending = new Pending(UUID.randomUUID().toString(), comment, new CompletableFuture<>());
+        boolean queued;
+        try {
+            queued = queue.offer(pending, offerTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            rejected.increment();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Comment queue is full, retry later");
+        }
+        return new Accepted(pending.provisionalId(), pending.persisted());
+    }
+
+    /**
+     * Wait up to {@code ack-timeout} for the comment's batch to commit.
+     *
+     * @return the saved comment, or null if it is still queued when the timeout expires
+     * @throws ResponseStatusException 400 when the comment itself was rejected (e.g. an unknown
+     *         post), 503 when the database could not take it
+     */
+    public CommentResponse awaitPersisted(Accepted accepted) {
+        try {
+            return accepted.persisted().get(ackTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DataIntegrityViolationException) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Comment could not be saved", e.getCause());
+            }
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Comment could not be saved, retry later",
+                    e.getCause());
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        // After shutdown the loop keeps going until everything accepted has been written
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                flushTimer.record(() -> flush(batch));
+            } catch (InterruptedException e) {
+                // Only used to cut a wait short; the loop condition decides when to stop
+            } catch (RuntimeException e) {
+                log.error("Comment writer failed on a batch of {}", batch.size(), e);
+                // No caller may be left waiting on a comment that was not written
+                batch.forEach(pending -> pending.persisted().completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Adds whatever arrives within max-delay, up to max-batch. An interrupt ends the wait early;
+    // the comments already taken off the queue are still flushed.
+    private void collect(List<Pending> batch) {
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatch) {
+            queue.drainTo(batch, maxBatch - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatch || remaining <= 0) {
+                return;
+            }
+            Pending next;
+            try {
+                next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        try {
+            List<Comment> saved = commentService.addComments(batch.stream().map(Pending::comment).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).persisted().complete(toResponse(saved.get(i)));
+            }
+        } catch (RuntimeException e) {
+            // One bad row (e.g. an unknown post) rolls back the whole batch; retry row by row, in order
+            log.warn("Comment batch of {} failed, saving individually: {}", batch.size(), e.getMessage());
+            for (Pending pending : batch) {
+                // Ids handed out in the rolled-back transaction are discarded
+                pending.comment().setId(null);
+                try {
+                    pending.persisted().complete(toResponse(commentService.addComment(pending.comment())));
+                } catch (RuntimeException rowFailure) {
+                    failed.increment();
+                    pending.persisted().completeExceptionally(rowFailure);
+                }
+            }
+        }
+    }
+
+    private static CommentResponse toResponse(Comment saved) {
+        return new CommentResponse(saved.getId(), saved.getMessage(),
+                saved.getPost() != null ? saved.getPost().getId() : null,
+                saved.getUser() != null ? saved.getUser().getId() : null);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        if (!queue.isEmpty()) {
+            log.warn("Comment writer stopped with {} comments still queued", queue.size());
+        }
+    }
+}
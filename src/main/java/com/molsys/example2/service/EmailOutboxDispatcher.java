@@ -0,0 +1,204 @@
+package com.molsys.example2.service;
+
+import com.molsys.example2.Entity.EmailOutbox;
+import com.molsys.example2.Entity.EmailOutboxStatus;
+import com.molsys.example2.Repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background sender for the email outbox. Each batch is delivered over a single SMTP
+ * connection; failed messages are retried with exponential backoff up to a maximum
+ * number of attempts. SMTP latency per batch is published as {@code mail.send}, and message
+ * outcomes as {@code mail.sent}, {@code mail.send.failures} and {@code mail.send.abandoned}.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.mail.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class EmailOutboxDispatcher {
+
+    private final EmailOutboxRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer sendSuccess;
+    private final Timer sendFailure;
+    private final Counter sent;
+    private final Counter failedAttempts;
+    private final Counter abandoned;
+
+    @Value("${spring.mail.username}")
+    private String fromEmail;
+
+    @Value("${app.mail.outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.mail.outbox.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.mail.outbox.backoff:PT30S}")
+    private Duration backoff;
+
+    // How long a claimed batch is hidden from other dispatchers while it is being sent
+    @Value("${app.mail.outbox.lease:PT2M}")
+    private Duration lease;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository, JavaMailSender mailSender,
+                                 PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sendSuccess = Timer.builder("mail.send")
+                .description("SMTP delivery time of one outbox batch")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        this.sendFailure = Timer.builder("mail.send")
+                .description("SMTP delivery time of one outbox batch")
+                .tag("outcome", "failure")
+                .register(meterRegistry);
+        this.sent = Counter.builder("mail.sent")
+                .description("Outbox emails delivered")
+                .register(meterRegistry);
+        this.failedAttempts = Counter.builder("mail.send.failures")
+                .description("Outbox delivery attempts that failed and will be retried or abandoned")
+                .register(meterRegistry);
+        this.abandoned = Counter.builder("mail.send.abandoned")
+                .description("Outbox emails marked FAILED after the last attempt")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        // Keep draining while batches come back full
+        int claimed;
+        do {
+            claimed = dispatchBatch();
+        } while (claimed == batchSize);
+    }
+
+    int dispatchBatch() {
+        Instant now = Instant.now();
+        List<EmailOutbox> batch = claimBatch(now);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        SimpleMailMessage[] messages = batch.stream().map(this::toMessage).toArray(SimpleMailMessage[]::new);
+        long start = System.nanoTime();
+        Map<Object, Exception> failures = send(messages);
+        (failures.isEmpty() ? sendSuccess : sendFailure).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        List<Long> sentIds = new ArrayList<>();
+        List<EmailOutbox> failed = new ArrayList<>();
+        for (int i = 0; i < batch.size(); i++) {
+            EmailOutbox entry = batch.get(i);
+            Exception failure = failures.get(messages[i]);
+            if (failure == null) {
+                sentIds.add(entry.getId());
+            } else {
+                scheduleRetry(entry, failure, now);
+                failed.add(entry);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!sentIds.isEmpty()) {
+                outboxRepository.markSent(sentIds, Instant.now());
+            }
+            if (!failed.isEmpty()) {
+                outboxRepository.saveAll(failed);
+            }
+        });
+
+        sent.increment(sentIds.size());
+        failedAttempts.increment(failed.size());
+        log.info("Email outbox batch: {} sent, {} failed", sentIds.size(), failed.size());
+        return batch.size();
+    }
+
+    private List<EmailOutbox> claimBatch(Instant now) {
+        List<EmailOutbox> batch = transactionTemplate.execute(status -> {
+            List<EmailOutbox> due = outboxRepository.findDueForUpdate(
+                    EmailOutboxStatus.PENDING, now, PageRequest.of(0, batchSize));
+            // Lease the rows: if this node dies mid-send they become due again after the lease
+            due.forEach(entry -> entry.setNextAttemptAt(now.plus(lease)));
+            return due;
+        });
+        return batch != null ? batch : Collections.emptyList();
+    }
+
+    private Map<Object, Exception> send(SimpleMailMessage[] messages) {
+        try {
+            // One connect/auth handshake for the whole batch
+            mailSender.send(messages);
+            return Collections.emptyMap();
+        } catch (MailSendException e) {
+            if (!e.getFailedMessages().isEmpty()) {
+                return e.getFailedMessages();
+            }
+            return allFailed(messages, e);
+        } catch (MailException e) {
+            return allFailed(messages, e);
+        }
+    }
+
+    private Map<Object, Exception> allFailed(SimpleMailMessage[] messages, Exception e) {
+        log.warn("Email outbox batch of {} failed: {}", messages.length, e.getMessage());
+        Map<Object, Exception> failures = new HashMap<>();
+        for (SimpleMailMessage message : messages) {
+            failures.put(message, e);
+        }
+        return failures;
+    }
+
+    private void scheduleRetry(EmailOutbox entry, Exception failure, Instant now) {
+        int attempts = entry.getAttempts() + 1;
+        entry.setAttempts(attempts);
+        entry.setLastError(truncate(failure.getMessage()));
+        if (attempts >= maxAttempts) {
+            entry.setStatus(EmailOutboxStatus.FAILED);
+            abandoned.increment();
+            log.error("Giving up on email {} to {} after {} attempts", entry.getId(), entry.getRecipient(), attempts);
+        } else {
+            long factor = 1L << Math.min(attempts - 1, 10);
+            entry.setNextAttemptAt(now.plus(backoff.multipliedBy(factor)));
+        }
+    }
+
+    private SimpleMailMessage toMessage(EmailOutbox entry) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(fromEmail);
+        message.setTo(entry.getRecipient());
+        message.setSubject(entry.getSubject());
+        message.setText(entry.getBody());
+        return message;
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
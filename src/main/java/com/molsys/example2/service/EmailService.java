@@ -1,45 +1,48 @@
 package com.molsys.example2.service;
 
+import com.molsys.example2.Entity.EmailOutbox;
+import com.molsys.example2.Repository.EmailOutboxRepository;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Instant;
+
 @Service
 @Slf4j
 public class EmailService {
-    private final JavaMailSender mailSender;
-
-    @Value("${spring.mail.username}")
-    private String fromEmail;
+    private final EmailOutboxRepository outboxRepository;
 
     @Value("${app.frontend-url}")
     private String frontendUrl;
 
-    public EmailService(JavaMailSender mailSender) {
-        this.mailSender = mailSender;
+    public EmailService(EmailOutboxRepository outboxRepository) {
+        this.outboxRepository = outboxRepository;
     }
 
+    /**
+     * Queue the reset email in the outbox as part of the caller's transaction.
+     * Delivery happens later on EmailOutboxDispatcher, so the caller never waits on SMTP.
+     */
+    @Transactional
     public void sendPasswordResetEmail(String to, String token) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(to);
-            message.setSubject("Password Reset Request");
-            String resetUrl = frontendUrl + "/reset-password?token=" + token;
-            message.setText("Hello,\n\n" +
-                    "You have requested to reset your password. Please click on the link below to reset your password:\n\n" +
-                    resetUrl + "\n\n" +
-                    "If you did not request a password reset, please ignore this email.\n\n" +
-                    "This link will expire in 15 minutes.\n\n" +
-                    "Best regards,\nYour Application Team");
+        String resetUrl = frontendUrl + "/reset-password?token=" + token;
+        Instant now = Instant.now();
+        EmailOutbox message = EmailOutbox.builder()
+                .recipient(to)
+                .subject("Password Reset Request")
+                .body("Hello,\n\n" +
+                        "You have requested to reset your password. Please click on the link below to reset your password:\n\n" +
+                        resetUrl + "\n\n" +
+                        "If you did not request a password reset, please ignore this email.\n\n" +
+                        "This link will expire in 15 minutes.\n\n" +
+                        "Best regards,\nYour Application Team")
+                .createdAt(now)
+                .nextAttemptAt(now)
+                .build();
 
-            mailSender.send(message);
-            log.info("Password reset email sent to: {}", to);
-        } catch (Exception e) {
-            log.error("Failed to send password reset email to: {}", to, e);
-            throw new RuntimeException("Failed to send password reset email", e);
-        }
+        outboxRepository.save(message);
+        log.info("Password reset email queued for: {}", to);
     }
-}
\ No newline at end of file
+}
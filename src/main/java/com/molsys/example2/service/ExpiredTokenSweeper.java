@@ -0,0 +1,112 @@
+package com.molsys.example2.service;
+
+import com.molsys.example2.Repository.RefreshSessionRepository;
+import com.molsys.example2.Repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Background cleanup of expired credentials: deletes expired refresh sessions and clears
+ * expired password-reset tokens. Each chunk takes the oldest expired ids off the expiry
+ * index and removes them in one short transaction, with a pause between chunks, so row
+ * locks are only ever held on a small set. Rows swept per run are published as
+ * {@code tokens.swept}.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.tokens.sweep.enabled", havingValue = "true", matchIfMissing = true)
+public class ExpiredTokenSweeper {
+
+    private final RefreshSessionRepository sessionRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DistributionSummary sessionsSwept;
+    private final DistributionSummary resetTokensSwept;
+
+    @Value("${app.tokens.sweep.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.tokens.sweep.chunk-pause:PT0.1S}")
+    private Duration chunkPause;
+
+    // Bounds one run; anything left over is picked up by the next one
+    @Value("${app.tokens.sweep.max-chunks-per-run:100}")
+    private int maxChunksPerRun;
+
+    private record Chunk(int selected, int swept) {
+    }
+
+    public ExpiredTokenSweeper(RefreshSessionRepository sessionRepository, UserRepository userRepository,
+                               PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.sessionRepository = sessionRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sessionsSwept = DistributionSummary.builder("tokens.swept")
+                .description("Expired rows removed per sweeper run")
+                .tag("kind", "refresh_session")
+                .register(meterRegistry);
+        this.resetTokensSwept = DistributionSummary.builder("tokens.swept")
+                .description("Expired rows removed per sweeper run")
+                .tag("kind", "password_reset")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.tokens.sweep.interval-ms:60000}")
+    public void sweep() {
+        Instant now = Instant.now();
+        int sessions = sweepChunks(now,
+                at -> sessionRepository.findExpiredIds(at, Limit.of(chunkSize)), sessionRepository::deleteExpired);
+        int resetTokens = sweepChunks(now,
+                at -> userRepository.findIdsWithExpiredResetToken(at, Limit.of(chunkSize)),
+                userRepository::clearExpiredResetTokens);
+
+        sessionsSwept.record(sessions);
+        resetTokensSwept.record(resetTokens);
+        if (sessions > 0 || resetTokens > 0) {
+            log.info("Token sweep: {} expired refresh sessions deleted, {} expired reset tokens cleared",
+                    sessions, resetTokens);
+        }
+    }
+
+    private int sweepChunks(Instant now, Function<Instant, List<Long>> findExpired,
+                            BiFunction<List<Long>, Instant, Integer> remove) {
+        int total = 0;
+        for (int i = 0; i < maxChunksPerRun; i++) {
+            Chunk chunk = transactionTemplate.execute(status -> {
+                List<Long> ids = findExpired.apply(now);
+                return new Chunk(ids.size(), ids.isEmpty() ? 0 : remove.apply(ids, now));
+            });
+            total += chunk.swept();
+            // A short chunk means the index has no more expired rows
+            if (chunk.selected() < chunkSize || i + 1 == maxChunksPerRun || !pause()) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    // Gives other transactions a turn at the rows and index pages between chunks
+    private boolean pause() {
+        try {
+            Thread.sleep(chunkPause.toMillis());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.molsys.example2.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.molsys.example2.Repository.CommentRepository;
+import com.molsys.example2.Repository.PostRepository;
+import com.molsys.example2.dto.CommentResponse;
+import com.molsys.example2.dto.PostResponse;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams posts and comments as NDJSON in id order. Rows come from a forward-only
+ * database cursor and are written as they arrive, so memory use does not depend on table size.
+ * The cursor's fetch size is set on these two queries only; the rest of the application keeps
+ * ordinary client-side result sets.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportService {
+    private static final int FLUSH_EVERY = 1000;
+
+    private static final String POSTS_AFTER = PostRepository.POST_RESPONSE + "where p.id > :afterId order by p.id";
+    private static final String COMMENTS_AFTER = CommentRepository.COMMENT_RESPONSE + "where c.id > :afterId order by c.id";
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final CommentCounters counters;
+
+    // Rows per round trip; Integer.MIN_VALUE makes MySQL Connector/J stream the result row by row
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Transactional(readOnly = true)
+    public long exportPosts(long afterId, OutputStream out) throws IOException {
+        try (Stream<PostResponse> rows = streamAfter(POSTS_AFTER, PostResponse.class, afterId)) {
+            return writeNdjson(rows.map(post -> {
+                post.setCommentCount(counters.count(post.getId()));
+                return post;
+            }), out);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public long exportComments(long afterId, OutputStream out) throws IOException {
+        try (Stream<CommentResponse> rows = streamAfter(COMMENTS_AFTER, CommentResponse.class, afterId)) {
+            return writeNdjson(rows, out);
+        }
+    }
+
+    // Forward-only cursor; must be consumed inside the transaction and closed
+    private <T> Stream<T> streamAfter(String query, Class<T> type, long afterId) {
+        return entityManager.createQuery(query, type)
+                .setParameter("afterId", afterId)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private long writeNdjson(Stream<?> rows, OutputStream out) throws IOException {
+        long count = 0;
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        // The servlet owns the response stream
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // No flush per row, so output only goes out every FLUSH_EVERY rows; lines are
+        // delimited by the newline alone, without the default space between root values
+        ObjectWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("");
+        Iterator<?> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            writer.writeValue(generator, iterator.next());
+            generator.writeRaw('\n');
+            if (++count % FLUSH_EVERY == 0) {
+                generator.flush();
+            }
+        }
+        generator.flush();
+        log.info("Exported {} rows", count);
+        return count;
+    }
+}
@@ -0,0 +1,130 @@
+package com.molsys.example2.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.molsys.example2.cache.SingleFlight;
+import com.molsys.example2.dto.CommentResponse;
+import com.molsys.example2.dto.PostResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for single posts and the first page of each post's comments, in both
+ * directions.
+ * <p>
+ * Writers update entries in place after their transaction commits. An update either chains
+ * onto an in-flight load and is applied to its result, or finds no entry and the next load
+ * reads the committed row. Either way a list loaded before a write cannot replace the newer one.
+ * Loads go through {@link SingleFlight}, on the calling thread outside the cache's internal
+ * locks. Hit/miss, eviction and load-time metrics are published
+ * under {@code cache.*}.
+ */
+@Component
+public class PostReadCache {
+
+    /**
+     * Comments held per cached head: one more than the largest page, so a first page always
+     * knows whether another one follows.
+     */
+    public static final int COMMENT_HEAD_SIZE = 101;
+
+    private final AsyncCache<Long, PostResponse> posts;
+    private final AsyncCache<HeadKey, List<CommentResponse>> commentHeads;
+
+    private record HeadKey(Long postId, boolean newestFirst) {
+    }
+
+    public PostReadCache(@Value("${app.cache.posts.max-size:100000}") long postsMaxSize,
+                         @Value("${app.cache.posts.ttl:PT10M}") Duration postsTtl,
+                         @Value("${app.cache.comments.max-weight:500000}") long commentsMaxWeight,
+                         @Value("${app.cache.comments.ttl:PT10M}") Duration commentsTtl,
+                         MeterRegistry meterRegistry) {
+        this.posts = Caffeine.newBuilder()
+                .maximumSize(postsMaxSize)
+                .expireAfterWrite(postsTtl)
+                .recordStats()
+                .buildAsync();
+        // Weighted by comment count so a few very long threads cannot crowd out everything else
+        this.commentHeads = Caffeine.newBuilder()
+                .maximumWeight(commentsMaxWeight)
+                .<HeadKey, List<CommentResponse>>weigher((key, head) -> head.size() + 1)
+                .expireAfterWrite(commentsTtl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, posts.synchronous(), "posts");
+        CaffeineCacheMetrics.monitor(meterRegistry, commentHeads.synchronous(), "post-comments");
+    }
+
+    /**
+     * Cached post, or the loader's result. A null result (unknown post) is not cached.
+     */
+    public PostResponse getPost(Long postId, Function<Long, PostResponse> loader) {
+        return SingleFlight.getOrLoad(posts, postId, loader);
+    }
+
+    /**
+     * Cached first comments of a post in one direction, at most {@link #COMMENT_HEAD_SIZE}, or
+     * the loader's result. A null result (unknown post) is not cached.
+     */
+    public List<CommentResponse> getCommentHead(Long postId, boolean newestFirst, Supplier<List<CommentResponse>> loader) {
+        return SingleFlight.getOrLoad(commentHeads, new HeadKey(postId, newestFirst),
+                key -> {
+                    List<CommentResponse> head = loader.get();
+                    return head != null ? Collections.unmodifiableList(head) : null;
+                });
+    }
+
+    public void postCreated(PostResponse post) {
+        posts.put(post.getId(), CompletableFuture.completedFuture(post));
+    }
+
+    /**
+     * Add a committed comment to its post's cached heads, if they are cached.
+     */
+    public void commentAdded(CommentResponse comment) {
+        for (boolean newestFirst : new boolean[]{false, true}) {
+            commentHeads.asMap().computeIfPresent(new HeadKey(comment.getPostId(), newestFirst), (key, head) ->
+                    head.thenApply(loaded -> loaded == null ? null : insert(loaded, comment, key.newestFirst())));
+        }
+    }
+
+    public void invalidateAll() {
+        posts.synchronous().invalidateAll();
+        commentHeads.synchronous().invalidateAll();
+    }
+
+    // Copy-on-write insert in head order, capped at the head size; a comment the load already saw is not added twice
+    private static List<CommentResponse> insert(List<CommentResponse> head, CommentResponse comment, boolean newestFirst) {
+        int index = head.size();
+        while (index > 0 && comesAfter(head.get(index - 1).getId(), comment.getId(), newestFirst)) {
+            if (head.get(index - 1).getId().equals(comment.getId())) {
+                return head;
+            }
+            index--;
+        }
+        if (index >= COMMENT_HEAD_SIZE) {
+            return head;
+        }
+        List<CommentResponse> updated = new ArrayList<>(head.size() + 1);
+        updated.addAll(head);
+        updated.add(index, comment);
+        if (updated.size() > COMMENT_HEAD_SIZE) {
+            updated.remove(updated.size() - 1);
+        }
+        return Collections.unmodifiableList(updated);
+    }
+
+    private static boolean comesAfter(long cachedId, long newId, boolean newestFirst) {
+        return newestFirst ? cachedId <= newId : cachedId >= newId;
+    }
+}
@@ -2,25 +2,93 @@ package com.molsys.example2.service;
 
 import com.molsys.example2.Entity.Post;
 import com.molsys.example2.Repository.PostRepository;
+import com.molsys.example2.config.RecentWriters;
+import com.molsys.example2.dto.PostResponse;
+import com.molsys.example2.search.PostSearchIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
 
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 public class PostService {
     private final PostRepository postRepository;
+    private final PostSearchIndex searchIndex;
+    private final PostReadCache readCache;
+    private final CollectionVersions versions;
+    private final CommentCounters counters;
+    private final RecentWriters recentWriters;
+    // Cache loads and ETag-guarded pages run read-write so they hit the primary and never pin a lagging replica's view
+    private final TransactionOperations transactions;
 
-    public List<Post> getAllPosts() {
-        return postRepository.findAll();
+    // Null when the post does not exist
+    public PostResponse getPost(Long id) {
+        PostResponse cached = readCache.getPost(id, postId ->
+                transactions.execute(status -> postRepository.findResponseById(postId).orElse(null)));
+        // The cached instance is shared; the count goes on a copy
+        return cached != null
+                ? new PostResponse(cached.getId(), cached.getTitle(), cached.getContent(), cached.getUserId(), counters.count(id))
+                : null;
+    }
+
+    // Posts older than beforeId (or the newest ones when null), newest first. Read on the primary:
+    // the caller's ETag was taken first, and a lagging replica's page under it would be revalidated
+    // with 304s until the next write.
+    public List<PostResponse> getPostsBefore(Long beforeId, int limit) {
+        List<PostResponse> posts = transactions.execute(status -> beforeId == null
+                ? postRepository.findNewest(Limit.of(limit))
+                : postRepository.findOlderThan(beforeId, Limit.of(limit)));
+        return withCommentCounts(posts);
     }
 
     public Post createPost(Post post) {
-        return postRepository.save(post);
+        Post saved = postRepository.save(post);
+        published(saved);
+        return saved;
+    }
+
+    // saveAll() runs in one transaction, so the inserts go out as JDBC batches
+    public List<Post> createPosts(List<Post> posts) {
+        List<Post> saved = postRepository.saveAll(posts);
+        saved.forEach(this::published);
+        return saved;
+    }
+
+    private void published(Post saved) {
+        Long authorId = saved.getUser() != null ? saved.getUser().getId() : null;
+        searchIndex.addLive(saved.getId(), saved.getTitle(), saved.getContent());
+        readCache.postCreated(new PostResponse(saved.getId(), saved.getTitle(), saved.getContent(), authorId));
+        versions.postsChanged();
+        recentWriters.wrote(authorId);
     }
-    public List<Post> searchPosts(String keyword) {
-        return postRepository.findByTitleContainingIgnoreCase(keyword);
+
+    // Ranked results from the in-memory index, best match first
+    public List<PostResponse> searchPosts(String keyword, int limit) {
+        if (!searchIndex.isReady()) {
+            // Index still building at startup
+            return withCommentCounts(postRepository.findByTitleContainingIgnoreCase(keyword, Limit.of(limit)));
+        }
+
+        long[] ids = searchIndex.search(keyword, limit);
+        Map<Long, Integer> rank = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            rank.put(ids[i], i);
+        }
+        return withCommentCounts(postRepository.findResponsesByIdIn(rank.keySet()).stream()
+                .sorted(Comparator.comparing(post -> rank.get(post.getId())))
+                .toList());
+    }
+
+    // Query results are fresh instances, so the counts are set in place
+    private List<PostResponse> withCommentCounts(List<PostResponse> posts) {
+        posts.forEach(post -> post.setCommentCount(counters.count(post.getId())));
+        return posts;
     }
 
 }
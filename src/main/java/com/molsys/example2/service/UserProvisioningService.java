@@ -0,0 +1,189 @@
+package com.molsys.example2.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.molsys.example2.Entity.Role;
+import com.molsys.example2.dto.BulkProvisioningResponse;
+import com.molsys.example2.dto.ProvisionUserRequest;
+import com.molsys.example2.security.BoundedPasswordEncoder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk user creation from an NDJSON stream. The stream is processed in chunks: each chunk
+ * is checked against existing emails with one query, hashed in parallel on a pool separate
+ * from interactive logins, and inserted with a single JDBC batch.
+ */
+@Service
+@Slf4j
+public class UserProvisioningService {
+
+    private static final String INSERT_USER = "insert into user (email, name, password, role) values (?, ?, ?, ?)";
+
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder hashEncoder;
+    private final ExecutorService hashPool;
+    private final int chunkSize;
+
+    public UserProvisioningService(ObjectMapper objectMapper,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   BoundedPasswordEncoder passwordEncoder,
+                                   @Value("${auth.provisioning.hash-threads:2}") int hashThreads,
+                                   @Value("${auth.provisioning.chunk-size:500}") int chunkSize) {
+        this.objectMapper = objectMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hashEncoder = passwordEncoder.getDelegate();
+        this.hashPool = Executors.newFixedThreadPool(hashThreads, runnable -> {
+            Thread thread = new Thread(runnable, "provisioning-hash");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.chunkSize = chunkSize;
+    }
+
+    public BulkProvisioningResponse provision(InputStream ndjson) throws IOException {
+        long received = 0;
+        long created = 0;
+        long skipped = 0;
+        long invalid = 0;
+        Set<String> seen = new HashSet<>();
+        List<ProvisionUserRequest> chunk = new ArrayList<>(chunkSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            received++;
+            ProvisionUserRequest request = parse(line);
+            if (request == null) {
+                invalid++;
+                continue;
+            }
+            // Duplicates within the stream count as already existing
+            if (!seen.add(request.getEmail())) {
+                skipped++;
+                continue;
+            }
+            chunk.add(request);
+            if (chunk.size() == chunkSize) {
+                ChunkResult result = insertChunk(chunk);
+                created += result.created();
+                skipped += result.skipped();
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            ChunkResult result = insertChunk(chunk);
+            created += result.created();
+            skipped += result.skipped();
+        }
+
+        log.info("Bulk provisioning: received={}, created={}, skipped={}, invalid={}", received, created, skipped, invalid);
+        return new BulkProvisioningResponse(received, created, skipped, invalid);
+    }
+
+    private ProvisionUserRequest parse(String line) {
+        try {
+            ProvisionUserRequest request = objectMapper.readValue(line, ProvisionUserRequest.class);
+            if (request.getEmail() == null || request.getEmail().isBlank()
+                    || request.getPassword() == null || request.getPassword().isBlank()) {
+                return null;
+            }
+            request.setEmail(request.getEmail().trim());
+            return request;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private record ChunkResult(int created, int skipped) {
+    }
+
+    private ChunkResult insertChunk(List<ProvisionUserRequest> chunk) {
+        Set<String> existing = new HashSet<>(namedJdbcTemplate.queryForList(
+                "select email from user where email in (:emails)",
+                new MapSqlParameterSource("emails", chunk.stream().map(ProvisionUserRequest::getEmail).toList()),
+                String.class));
+        List<ProvisionUserRequest> fresh = chunk.stream().filter(r -> !existing.contains(r.getEmail())).toList();
+
+        List<Object[]> rows = hashAll(fresh);
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_USER, rows));
+            return new ChunkResult(rows.size(), existing.size());
+        } catch (DataIntegrityViolationException e) {
+            // Someone registered one of these emails concurrently; fall back to row-by-row for this chunk
+            int created = 0;
+            for (Object[] row : rows) {
+                try {
+                    jdbcTemplate.update(INSERT_USER, row);
+                    created++;
+                } catch (DataIntegrityViolationException duplicate) {
+                    // already exists
+                }
+            }
+            return new ChunkResult(created, chunk.size() - created);
+        }
+    }
+
+    private List<Object[]> hashAll(List<ProvisionUserRequest> requests) {
+        List<Future<String>> hashes = new ArrayList<>(requests.size());
+        for (ProvisionUserRequest request : requests) {
+            hashes.add(hashPool.submit(() -> hashEncoder.encode(request.getPassword())));
+        }
+
+        List<Object[]> rows = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            ProvisionUserRequest request = requests.get(i);
+            Role role = request.getRole() != null ? request.getRole() : Role.USER;
+            String name = request.getName() != null ? request.getName() : "User";
+            rows.add(new Object[]{request.getEmail(), name, await(hashes.get(i)), role.name()});
+        }
+        return rows;
+    }
+
+    private static String await(Future<String> hash) {
+        try {
+            return hash.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        hashPool.shutdownNow();
+    }
+}
@@ -0,0 +1,86 @@
+package com.molsys.example2.service;
+
+import com.molsys.example2.Entity.Role;
+import com.molsys.example2.Entity.User;
+import com.molsys.example2.Repository.RefreshSessionRepository;
+import com.molsys.example2.Repository.UserRepository;
+import com.molsys.example2.dto.AuthRequest;
+import com.molsys.example2.security.JwtService;
+import com.molsys.example2.security.UserPrincipalCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AuthServiceLoginTest {
+
+    // Stands in for the calibrated cost; hashes below it are upgraded on login
+    private static final int CALIBRATED_STRENGTH = 5;
+
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(CALIBRATED_STRENGTH);
+    private UserRepository userRepository;
+    private AuthService authService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        JwtService jwtService = mock(JwtService.class);
+        when(jwtService.generateRefreshToken(1L)).thenReturn("refresh-token");
+        authService = new AuthService(userRepository, passwordEncoder, jwtService, mock(EmailService.class),
+                mock(UserPrincipalCache.class), mock(RefreshSessionRepository.class),
+                TransactionOperations.withoutTransaction());
+    }
+
+    @Test
+    void login_WithHashBelowCalibratedCost_ShouldRehashAndSave() {
+        User user = user(new BCryptPasswordEncoder(4).encode("secret"));
+
+        authService.login(request("secret"));
+
+        ArgumentCaptor<User> saved = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).save(saved.capture());
+        String upgraded = saved.getValue().getPassword();
+        assertTrue(upgraded.startsWith("$2a$05$"), upgraded);
+        assertTrue(passwordEncoder.matches("secret", upgraded));
+        assertSame(user, saved.getValue());
+    }
+
+    @Test
+    void login_WithHashAtCalibratedCost_ShouldNotWriteUser() {
+        user(passwordEncoder.encode("secret"));
+
+        authService.login(request("secret"));
+
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void login_WithWrongPassword_ShouldNotRehash() {
+        user(new BCryptPasswordEncoder(4).encode("secret"));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> authService.login(request("wrong")));
+
+        assertEquals("Invalid credentials", e.getMessage());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    private User user(String passwordHash) {
+        User user = User.builder().id(1L).email("user@example.com").password(passwordHash).role(Role.USER).build();
+        when(userRepository.findByEmail("user@example.com")).thenReturn(Optional.of(user));
+        return user;
+    }
+
+    private static AuthRequest request(String password) {
+        AuthRequest request = new AuthRequest();
+        request.setEmail("user@example.com");
+        request.setPassword(password);
+        return request;
+    }
+}
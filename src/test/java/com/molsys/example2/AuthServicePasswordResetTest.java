@@ -1,8 +1,10 @@
 package com.molsys.example2.service;
 
 import com.molsys.example2.Entity.User;
+import com.molsys.example2.Repository.RefreshSessionRepository;
 import com.molsys.example2.Repository.UserRepository;
 import com.molsys.example2.dto.ResetPasswordRequest;
+import com.molsys.example2.security.UserPrincipalCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -28,6 +30,12 @@ class AuthServicePasswordResetTest {
     @Mock
     private EmailService emailService;
 
+    @Mock
+    private UserPrincipalCache principalCache;
+
+    @Mock
+    private RefreshSessionRepository sessionRepository;
+
     @InjectMocks
     private AuthService authService;
 
@@ -84,10 +92,10 @@ class AuthServicePasswordResetTest {
         verify(userRepository).save(argThat(user ->
                 user.getPassword().equals("new_encoded_password") &&
                         user.getPasswordResetToken() == null &&
-                        user.getPasswordResetTokenExpiry() == null &&
-                        user.getRefreshToken() == null &&
-                        user.getRefreshTokenExpiry() == null
+                        user.getPasswordResetTokenExpiry() == null
         ));
+        verify(sessionRepository).deleteByUserId(1L);
+        verify(principalCache).invalidate(1L);
     }
 
     @Test
@@ -111,6 +119,7 @@ class AuthServicePasswordResetTest {
 
         assertEquals("Password reset token has expired", exception.getMessage());
         verify(userRepository, never()).save(any(User.class));
+        verify(sessionRepository, never()).deleteByUserId(any());
     }
 
     @Test
@@ -0,0 +1,115 @@
+package com.molsys.example2;
+
+import com.molsys.example2.Entity.Post;
+import com.molsys.example2.Entity.Role;
+import com.molsys.example2.Entity.User;
+import com.molsys.example2.Repository.CommentRepository;
+import com.molsys.example2.Repository.PostRepository;
+import com.molsys.example2.Repository.UserRepository;
+import com.molsys.example2.security.JwtService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BatchCreateStatementCountTest {
+
+    private static final int ROWS = 120;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String bearer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        commentRepository.deleteAll();
+        postRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User author = userRepository.save(User.builder()
+                .email("importer@example.com").name("Importer").password("x").role(Role.USER).build());
+        bearer = "Bearer " + jwtService.generateAccessToken(author.getId(), Role.USER);
+        // Warm the principal cache so only the endpoint's own statements are counted
+        mockMvc.perform(get("/api/posts").header("Authorization", bearer)).andExpect(status().isOk());
+    }
+
+    @Test
+    void batchPosts_ShouldInsertInJdbcBatches() throws Exception {
+        String body = IntStream.range(0, ROWS)
+                .mapToObj(i -> "{\"title\":\"imported " + i + "\",\"content\":\"body " + i + "\"}")
+                .collect(Collectors.joining(",", "[", "]"));
+
+        statistics.clear();
+        mockMvc.perform(post("/api/posts/batch").header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(ROWS))
+                .andExpect(jsonPath("$[0].title").value("imported 0"));
+
+        // A few id allocations plus one statement per batch of 50, instead of one insert per row
+        assertTrue(statistics.getPrepareStatementCount() < 10, "statements: " + statistics.getPrepareStatementCount());
+        assertEquals(ROWS, postRepository.count());
+    }
+
+    @Test
+    void batchComments_ShouldInsertInJdbcBatches() throws Exception {
+        Post target = postRepository.save(Post.builder().title("target").content("target").build());
+        String body = IntStream.range(0, ROWS)
+                .mapToObj(i -> "{\"message\":\"comment " + i + "\",\"post\":{\"id\":" + target.getId() + "}}")
+                .collect(Collectors.joining(",", "[", "]"));
+
+        statistics.clear();
+        mockMvc.perform(post("/api/comments/batch").header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(ROWS))
+                .andExpect(jsonPath("$[0].postId").value(target.getId()));
+
+        assertTrue(statistics.getPrepareStatementCount() < 10, "statements: " + statistics.getPrepareStatementCount());
+        assertEquals(ROWS, commentRepository.count());
+    }
+
+    @Test
+    void batchPosts_ShouldRejectEmptyBatch() throws Exception {
+        mockMvc.perform(post("/api/posts/batch").header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,71 @@
+package com.molsys.example2.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch hashing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.close();
+    }
+
+    @Test
+    void fullPoolAndQueue_ShouldRejectWith503AndCountIt() throws Exception {
+        // One hashing thread, one queue slot
+        encoder = new BoundedPasswordEncoder(blockingEncoder(), 1, 1, Duration.ofSeconds(10), meterRegistry);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        assertTrue(hashing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        while (encoder.getQueueDepth() < 1) {
+            Thread.onSpinWait();
+        }
+
+        ResponseStatusException rejected = assertThrows(ResponseStatusException.class, () -> encoder.encode("third"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, rejected.getStatusCode());
+        assertEquals(1, meterRegistry.get("password.hash.rejected").counter().count());
+
+        // Admitted calls still complete once the pool frees up
+        release.countDown();
+        assertEquals("hashed:first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hashed:second", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    private PasswordEncoder blockingEncoder() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                hashing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hashed:" + rawPassword;
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return encode(rawPassword).equals(encodedPassword);
+            }
+        };
+    }
+}
@@ -0,0 +1,43 @@
+package com.molsys.example2.security;
+
+import jakarta.servlet.ReadListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedBodyHttpServletRequestTest {
+
+    @Test
+    void readListener_ShouldSeeWholeBodyAvailableAndThenAllRead() throws Exception {
+        CachedBodyHttpServletRequest request = new CachedBodyHttpServletRequest(
+                new MockHttpServletRequest(), "{\"email\":\"a@example.com\"}".getBytes(StandardCharsets.UTF_8));
+        var in = request.getInputStream();
+        List<String> events = new ArrayList<>();
+
+        in.setReadListener(new ReadListener() {
+            @Override
+            public void onDataAvailable() throws IOException {
+                events.add("available:" + new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public void onAllDataRead() {
+                events.add("done");
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                events.add("error");
+            }
+        });
+
+        assertEquals(List.of("available:{\"email\":\"a@example.com\"}", "done"), events);
+        assertTrue(in.isFinished());
+    }
+}
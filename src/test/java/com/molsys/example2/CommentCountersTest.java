@@ -0,0 +1,114 @@
+package com.molsys.example2;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.molsys.example2.Entity.Comment;
+import com.molsys.example2.Entity.Post;
+import com.molsys.example2.Repository.CommentRepository;
+import com.molsys.example2.Repository.PostRepository;
+import com.molsys.example2.service.CommentCounters;
+import com.molsys.example2.service.CommentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class CommentCountersTest {
+
+    @Autowired
+    private CommentCounters counters;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Post post;
+
+    @BeforeEach
+    void setUp() {
+        commentRepository.deleteAll();
+        postRepository.deleteAll();
+        post = postRepository.save(Post.builder().title("counted").content("counted").build());
+    }
+
+    private long persistedCount() {
+        return jdbcTemplate.queryForObject("select comment_count from post where id = ?", Long.class, post.getId());
+    }
+
+    private void addComments(int count) {
+        List<Comment> comments = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            comments.add(Comment.builder().message("comment " + i).post(post).build());
+        }
+        commentService.addComments(comments);
+    }
+
+    @Test
+    void added_ShouldCountInMemoryAndReachColumnOnFlush() {
+        addComments(5);
+        assertEquals(5, counters.count(post.getId()));
+
+        counters.flush();
+        assertEquals(5, persistedCount());
+
+        // Nothing pending: a second flush leaves the column alone
+        counters.flush();
+        assertEquals(5, persistedCount());
+    }
+
+    @Test
+    void startupRebuild_ShouldRecountColumnFromCommentTable() {
+        addComments(3);
+        counters.flush();
+        // Rows written behind the counters' back, and a drifted column
+        commentRepository.save(Comment.builder().message("direct").post(post).build());
+        jdbcTemplate.update("update post set comment_count = 42 where id = ?", post.getId());
+
+        CommentCounters rebuilt = new CommentCounters(jdbcTemplate,
+                new DataSourceTransactionManager(jdbcTemplate.getDataSource()),
+                true, 1, 500);
+        rebuilt.afterSingletonsInstantiated();
+
+        assertEquals(4, persistedCount());
+        assertEquals(4, rebuilt.count(post.getId()));
+    }
+
+    @Test
+    void startupWithoutRebuild_ShouldLoadColumnAsIs() {
+        jdbcTemplate.update("update post set comment_count = 7 where id = ?", post.getId());
+
+        CommentCounters loaded = new CommentCounters(jdbcTemplate,
+                new DataSourceTransactionManager(jdbcTemplate.getDataSource()),
+                false, 1, 500);
+        loaded.afterSingletonsInstantiated();
+
+        assertEquals(7, persistedCount());
+        assertEquals(7, loaded.count(post.getId()));
+    }
+
+    @Test
+    void commentCount_ShouldNotBeBoundFromRequestBody() throws Exception {
+        Post fromClient = objectMapper.readValue("{\"title\":\"t\",\"content\":\"c\",\"commentCount\":999}", Post.class);
+        assertEquals(0, fromClient.getCommentCount());
+    }
+}
@@ -0,0 +1,156 @@
+package com.molsys.example2.service;
+
+import com.molsys.example2.Entity.Comment;
+import com.molsys.example2.Entity.Post;
+import com.molsys.example2.dto.CommentResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CommentWriteBehindTest {
+
+    private final CommentService commentService = mock(CommentService.class);
+    private final AtomicLong ids = new AtomicLong();
+    private CommentWriteBehind writeBehind;
+
+    private CommentWriteBehind start(int capacity, Duration maxDelay) {
+        writeBehind = new CommentWriteBehind(commentService, capacity, 10, maxDelay,
+                Duration.ofMillis(20), Duration.ofSeconds(5), new SimpleMeterRegistry());
+        writeBehind.start();
+        return writeBehind;
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writeBehind.shutdown();
+    }
+
+    private static Comment comment(long postId, String message) {
+        return Comment.builder().message(message).post(Post.builder().id(postId).build()).build();
+    }
+
+    private Comment saved(Comment comment) {
+        comment.setId(ids.incrementAndGet());
+        return comment;
+    }
+
+    @Test
+    void submit_ShouldGroupCommitInArrivalOrder() throws Exception {
+        when(commentService.addComments(anyList()))
+                .thenAnswer(call -> call.<List<Comment>>getArgument(0).stream().map(this::saved).toList());
+        start(100, Duration.ofMillis(200));
+
+        List<CommentWriteBehind.Accepted> accepted = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            accepted.add(writeBehind.submit(comment(1L, "m" + i)));
+        }
+        for (int i = 0; i < 5; i++) {
+            CommentResponse response = writeBehind.awaitPersisted(accepted.get(i));
+            assertEquals("m" + i, response.getMessage());
+            assertEquals(i + 1, response.getId());
+        }
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Comment>> batch = ArgumentCaptor.forClass(List.class);
+        verify(commentService, times(1)).addComments(batch.capture());
+        assertEquals(List.of("m0", "m1", "m2", "m3", "m4"), batch.getValue().stream().map(Comment::getMessage).toList());
+    }
+
+    @Test
+    void submit_ShouldRejectWhenQueueIsFull() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(commentService.addComments(anyList())).thenAnswer(call -> {
+            writing.countDown();
+            release.await();
+            return call.<List<Comment>>getArgument(0).stream().map(this::saved).toList();
+        });
+        start(1, Duration.ZERO);
+
+        writeBehind.submit(comment(1L, "in flight"));
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        writeBehind.submit(comment(1L, "queued"));
+
+        ResponseStatusException full = assertThrows(ResponseStatusException.class,
+                () -> writeBehind.submit(comment(1L, "rejected")));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, full.getStatusCode());
+        release.countDown();
+    }
+
+    @Test
+    void failedBatch_ShouldRetryRowByRowAndFailOnlyTheBadRow() throws Exception {
+        when(commentService.addComments(anyList())).thenThrow(new DataIntegrityViolationException("unknown post"));
+        when(commentService.addComment(any())).thenAnswer(call -> {
+            Comment comment = call.getArgument(0);
+            if (comment.getPost().getId() == 99L) {
+                throw new DataIntegrityViolationException("unknown post");
+            }
+            return saved(comment);
+        });
+        start(100, Duration.ofMillis(200));
+
+        CommentWriteBehind.Accepted good = writeBehind.submit(comment(1L, "good"));
+        CommentWriteBehind.Accepted bad = writeBehind.submit(comment(99L, "bad"));
+
+        assertEquals("good", good.persisted().get(5, TimeUnit.SECONDS).getMessage());
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> bad.persisted().get(5, TimeUnit.SECONDS));
+        assertInstanceOf(DataIntegrityViolationException.class, failure.getCause());
+    }
+
+    @Test
+    void awaitPersisted_ShouldAnswerRejectedCommentsWith400AndDatabaseFailuresWith503() {
+        when(commentService.addComments(anyList())).thenThrow(new CannotCreateTransactionException("pool exhausted"));
+        when(commentService.addComment(any())).thenAnswer(call -> {
+            Comment comment = call.getArgument(0);
+            if (comment.getPost().getId() == 99L) {
+                throw new DataIntegrityViolationException("unknown post");
+            }
+            throw new CannotCreateTransactionException("pool exhausted");
+        });
+        start(100, Duration.ofMillis(200));
+
+        CommentWriteBehind.Accepted unknownPost = writeBehind.submit(comment(99L, "bad"));
+        CommentWriteBehind.Accepted outage = writeBehind.submit(comment(1L, "good"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, assertThrows(ResponseStatusException.class,
+                () -> writeBehind.awaitPersisted(unknownPost)).getStatusCode());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, assertThrows(ResponseStatusException.class,
+                () -> writeBehind.awaitPersisted(outage)).getStatusCode());
+    }
+
+    @Test
+    void interruptWhileCollecting_ShouldStillFlushTheCommentsAlreadyTaken() throws Exception {
+        when(commentService.addComments(anyList()))
+                .thenAnswer(call -> call.<List<Comment>>getArgument(0).stream().map(this::saved).toList());
+        // Long enough that only the interrupt can end the wait within the test's timeout
+        start(100, Duration.ofSeconds(30));
+
+        CommentWriteBehind.Accepted accepted = writeBehind.submit(comment(1L, "taken"));
+        BlockingQueue<?> queue = (BlockingQueue<?>) ReflectionTestUtils.getField(writeBehind, "queue");
+        while (!queue.isEmpty()) {
+            Thread.sleep(1);
+        }
+        ((Thread) ReflectionTestUtils.getField(writeBehind, "writer")).interrupt();
+
+        assertEquals("taken", accepted.persisted().get(5, TimeUnit.SECONDS).getMessage());
+    }
+}
@@ -0,0 +1,105 @@
+package com.molsys.example2.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.molsys.example2.Entity.EmailOutbox;
+import com.molsys.example2.Entity.EmailOutboxStatus;
+import com.molsys.example2.Repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class EmailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Mock
+    private EmailOutboxRepository outboxRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private List<EmailOutbox> pending;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        pending = List.of(outbox(1L, "a@example.com"), outbox(2L, "b@example.com"), outbox(3L, "c@example.com"));
+        when(outboxRepository.findDueForUpdate(eq(EmailOutboxStatus.PENDING), any(), any())).thenReturn(pending);
+    }
+
+    private EmailOutboxDispatcher dispatcher(int port) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+
+        EmailOutboxDispatcher dispatcher = new EmailOutboxDispatcher(outboxRepository, mailSender, transactionManager,
+                meterRegistry);
+        ReflectionTestUtils.setField(dispatcher, "fromEmail", "noreply@example.com");
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 50);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "backoff", Duration.ofSeconds(30));
+        ReflectionTestUtils.setField(dispatcher, "lease", Duration.ofMinutes(2));
+        return dispatcher;
+    }
+
+    private EmailOutbox outbox(Long id, String recipient) {
+        return EmailOutbox.builder()
+                .id(id)
+                .recipient(recipient)
+                .subject("Password Reset Request")
+                .body("reset link " + id)
+                .createdAt(Instant.now())
+                .nextAttemptAt(Instant.now())
+                .build();
+    }
+
+    @Test
+    void dispatchBatch_ShouldDeliverAllMessagesAndMarkThemSent() {
+        int claimed = dispatcher(ServerSetupTest.SMTP.getPort()).dispatchBatch();
+
+        assertEquals(3, claimed);
+        assertEquals(3, greenMail.getReceivedMessages().length);
+        verify(outboxRepository).markSent(eq(List.of(1L, 2L, 3L)), any(Instant.class));
+        verify(outboxRepository, never()).saveAll(any());
+        assertEquals(3, meterRegistry.counter("mail.sent").count());
+        assertEquals(1, meterRegistry.timer("mail.send", "outcome", "success").count());
+    }
+
+    @Test
+    void dispatchBatch_WhenSmtpUnavailable_ShouldScheduleRetryWithBackoff() {
+        Instant before = Instant.now();
+
+        dispatcher(1).dispatchBatch();
+
+        verify(outboxRepository, never()).markSent(any(), any());
+        verify(outboxRepository).saveAll(argThat(entries -> {
+            for (EmailOutbox entry : entries) {
+                if (entry.getAttempts() != 1 || entry.getStatus() != EmailOutboxStatus.PENDING
+                        || entry.getNextAttemptAt().isBefore(before.plusSeconds(30))) {
+                    return false;
+                }
+            }
+            return true;
+        }));
+        assertEquals(3, meterRegistry.counter("mail.send.failures").count());
+        assertEquals(1, meterRegistry.timer("mail.send", "outcome", "failure").count());
+    }
+}
@@ -0,0 +1,112 @@
+package com.molsys.example2.service;
+
+import com.molsys.example2.Entity.RefreshSession;
+import com.molsys.example2.Entity.Role;
+import com.molsys.example2.Entity.User;
+import com.molsys.example2.Repository.RefreshSessionRepository;
+import com.molsys.example2.Repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ExpiredTokenSweeperTest {
+
+    @Autowired
+    private RefreshSessionRepository sessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExpiredTokenSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        sessionRepository.deleteAll();
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new ExpiredTokenSweeper(sessionRepository, userRepository, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(sweeper, "chunkSize", 2);
+        ReflectionTestUtils.setField(sweeper, "chunkPause", Duration.ZERO);
+        ReflectionTestUtils.setField(sweeper, "maxChunksPerRun", 100);
+    }
+
+    @Test
+    void sweepsExpiredRowsInChunksAndKeepsLiveOnes() {
+        Instant now = Instant.now();
+        for (int i = 0; i < 5; i++) {
+            session(now.minusSeconds(60 + i));
+        }
+        RefreshSession live = session(now.plusSeconds(3600));
+        User expired = userWithResetToken(now.minusSeconds(60));
+        User pending = userWithResetToken(now.plusSeconds(600));
+
+        sweeper.sweep();
+
+        assertEquals(1, sessionRepository.count());
+        assertTrue(sessionRepository.existsById(live.getId()));
+        assertNull(userRepository.findById(expired.getId()).orElseThrow().getPasswordResetToken());
+        assertEquals(pending.getPasswordResetToken(),
+                userRepository.findById(pending.getId()).orElseThrow().getPasswordResetToken());
+        assertEquals(5, summary("refresh_session").totalAmount());
+        assertEquals(1, summary("password_reset").totalAmount());
+    }
+
+    @Test
+    void runIsBoundedByMaxChunks() {
+        Instant now = Instant.now();
+        for (int i = 0; i < 5; i++) {
+            session(now.minusSeconds(60 + i));
+        }
+        ReflectionTestUtils.setField(sweeper, "maxChunksPerRun", 1);
+
+        sweeper.sweep();
+        assertEquals(3, sessionRepository.count());
+
+        // The rest is picked up by later runs
+        sweeper.sweep();
+        sweeper.sweep();
+        assertEquals(0, sessionRepository.count());
+        assertEquals(3, summary("refresh_session").count());
+    }
+
+    private DistributionSummary summary(String kind) {
+        return meterRegistry.get("tokens.swept").tag("kind", kind).summary();
+    }
+
+    private RefreshSession session(Instant expiresAt) {
+        return sessionRepository.save(RefreshSession.builder()
+                .tokenHash(UUID.randomUUID().toString().replace("-", ""))
+                .userId(1L)
+                .createdAt(expiresAt.minusSeconds(3600))
+                .expiresAt(expiresAt)
+                .build());
+    }
+
+    private User userWithResetToken(Instant expiry) {
+        return userRepository.save(User.builder()
+                .email(UUID.randomUUID() + "@example.com")
+                .name("User")
+                .password("x")
+                .role(Role.USER)
+                .passwordResetToken(UUID.randomUUID().toString())
+                .passwordResetTokenExpiry(expiry)
+                .build());
+    }
+}
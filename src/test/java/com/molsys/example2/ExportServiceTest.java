@@ -0,0 +1,77 @@
+package com.molsys.example2.service;
+
+import com.molsys.example2.Entity.Post;
+import com.molsys.example2.Repository.CommentRepository;
+import com.molsys.example2.Repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ExportServiceTest {
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    private List<Post> posts;
+
+    @BeforeEach
+    void setUp() {
+        commentRepository.deleteAll();
+        postRepository.deleteAll();
+        posts = postRepository.saveAll(List.of(
+                Post.builder().title("first").content("one").build(),
+                Post.builder().title("second").content("two").build(),
+                Post.builder().title("third").content("three").build()));
+    }
+
+    @Test
+    void writesOneJsonObjectPerLineAndFlushesOnlyAtTheEnd() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+
+        assertEquals(3, exportService.exportPosts(0, out));
+
+        assertEquals(line(0) + line(1) + line(2), out.toString(StandardCharsets.UTF_8));
+        assertEquals(1, out.flushes);
+    }
+
+    @Test
+    void resumesAfterTheLastReceivedId() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertEquals(1, exportService.exportPosts(posts.get(1).getId(), out));
+
+        assertEquals(line(2), out.toString(StandardCharsets.UTF_8));
+    }
+
+    private String line(int index) {
+        Post post = posts.get(index);
+        return "{\"id\":" + post.getId() + ",\"title\":\"" + post.getTitle() + "\",\"content\":\""
+                + post.getContent() + "\",\"userId\":null,\"commentCount\":0}\n";
+    }
+
+    private static final class CountingOutputStream extends ByteArrayOutputStream {
+        int flushes;
+
+        @Override
+        public void flush() {
+            flushes++;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.molsys.example2.config;
+
+import com.molsys.example2.Entity.Post;
+import com.molsys.example2.Repository.CommentRepository;
+import com.molsys.example2.Repository.PostRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class IdSequenceAlignerTest {
+
+    @Autowired
+    private IdSequenceAligner aligner;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @BeforeEach
+    void setUp() {
+        commentRepository.deleteAll();
+        postRepository.deleteAll();
+    }
+
+    @Test
+    void align_ShouldMoveSequenceBehindExistingIdsPastThem() {
+        // A row from before the switch to sequences, far ahead of the sequence
+        long legacyId = nextPostSeq() + 100_000;
+        jdbcTemplate.update("insert into post (id, title, comment_count) values (?, 'legacy', 0)", legacyId);
+
+        aligner.align("post", "post_seq", Post.ID_ALLOCATION_SIZE);
+
+        // The next pooled block starts after the legacy row
+        assertTrue(nextPostSeq() - Post.ID_ALLOCATION_SIZE + 1 > legacyId);
+    }
+
+    @Test
+    void align_ShouldLeaveSequenceAheadOfExistingIdsAlone() {
+        jdbcTemplate.update("insert into post (id, title, comment_count) values (1, 'old', 0)");
+        long before = nextPostSeq();
+
+        aligner.align("post", "post_seq", Post.ID_ALLOCATION_SIZE);
+
+        // Only the one block read by the check itself is skipped
+        assertEquals(before + 2L * Post.ID_ALLOCATION_SIZE, nextPostSeq());
+    }
+
+    private long nextPostSeq() {
+        return jdbcTemplate.queryForObject("select next value for post_seq", Long.class);
+    }
+}
@@ -0,0 +1,46 @@
+package com.molsys.example2.security;
+
+import com.molsys.example2.Entity.Role;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceKeyRotationTest {
+
+    private static final String OLD_SECRET = "old_access_secret_key_that_is_long_enough_for_hmac";
+    private static final String NEW_SECRET = "new_access_secret_key_that_is_long_enough_for_hmac";
+
+    private JwtService newJwtService(String secret, String... previousSecrets) {
+        JwtService service = new JwtService();
+        ReflectionTestUtils.setField(service, "jwtSecret", secret);
+        ReflectionTestUtils.setField(service, "jwtPreviousSecrets", previousSecrets);
+        ReflectionTestUtils.setField(service, "jwtExpirationMs", 60_000L);
+        ReflectionTestUtils.setField(service, "jwtRefreshSecret", secret + "_refresh");
+        ReflectionTestUtils.setField(service, "jwtRefreshPreviousSecrets", new String[0]);
+        ReflectionTestUtils.setField(service, "jwtRefreshExpirationMs", 60_000L);
+        service.initKeyRings();
+        return service;
+    }
+
+    @Test
+    void tokenSignedWithRetiredSecret_ShouldStillValidateAfterRotation() {
+        String oldToken = newJwtService(OLD_SECRET).generateAccessToken(7L, Role.USER);
+
+        JwtService rotated = newJwtService(NEW_SECRET, OLD_SECRET);
+
+        assertEquals(7, rotated.validateAccessToken(oldToken).getBody().get("id", Integer.class));
+        String newToken = rotated.generateAccessToken(8L, Role.ADMIN);
+        assertEquals("ADMIN", rotated.validateAccessToken(newToken).getBody().get("role", String.class));
+    }
+
+    @Test
+    void tokenSignedWithDroppedSecret_ShouldBeRejected() {
+        String oldToken = newJwtService(OLD_SECRET).generateAccessToken(7L, Role.USER);
+
+        JwtService rotated = newJwtService(NEW_SECRET);
+
+        assertThrows(SignatureException.class, () -> rotated.validateAccessToken(oldToken));
+    }
+}
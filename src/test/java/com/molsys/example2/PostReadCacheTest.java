@@ -0,0 +1,102 @@
+package com.molsys.example2.service;
+
+import com.molsys.example2.dto.CommentResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostReadCacheTest {
+
+    private final PostReadCache cache = new PostReadCache(100, Duration.ofMinutes(1), 1000, Duration.ofMinutes(1),
+            new SimpleMeterRegistry());
+
+    private static CommentResponse comment(long id) {
+        return new CommentResponse(id, "comment " + id, 1L, 1L);
+    }
+
+    private static List<CommentResponse> head(long... ids) {
+        return LongStream.of(ids).mapToObj(PostReadCacheTest::comment).toList();
+    }
+
+    private List<CommentResponse> cached(boolean newestFirst) {
+        return cache.getCommentHead(1L, newestFirst, () -> fail("should be cached"));
+    }
+
+    private static List<Long> ids(List<CommentResponse> head) {
+        return head.stream().map(CommentResponse::getId).toList();
+    }
+
+    @Test
+    void commentAddedDuringLoad_ShouldNotBeLostWhenStaleHeadLands() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Reader loaded its head before comment 3 was committed
+        CompletableFuture<List<CommentResponse>> reader = CompletableFuture.supplyAsync(() ->
+                cache.getCommentHead(1L, false, () -> {
+                    loading.countDown();
+                    await(release);
+                    return head(1, 2);
+                }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> cache.commentAdded(comment(3)));
+        release.countDown();
+        reader.get(5, TimeUnit.SECONDS);
+        writer.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(1L, 2L, 3L), ids(cached(false)));
+    }
+
+    @Test
+    void commentAdded_ShouldKeepOrderInBothDirectionsAndIgnoreDuplicates() {
+        cache.getCommentHead(1L, false, () -> head(1, 4));
+        cache.getCommentHead(1L, true, () -> head(4, 1));
+
+        cache.commentAdded(comment(3));
+        cache.commentAdded(comment(4));
+        cache.commentAdded(comment(5));
+
+        assertEquals(List.of(1L, 3L, 4L, 5L), ids(cached(false)));
+        assertEquals(List.of(5L, 4L, 3L, 1L), ids(cached(true)));
+    }
+
+    @Test
+    void commentAdded_ShouldKeepHeadsCapped() {
+        long[] full = LongStream.rangeClosed(2, PostReadCache.COMMENT_HEAD_SIZE + 1).toArray();
+        cache.getCommentHead(1L, false, () -> head(full));
+
+        // Past the end of a full oldest-first head: not part of it
+        cache.commentAdded(comment(PostReadCache.COMMENT_HEAD_SIZE + 2));
+        assertEquals(full.length, cached(false).size());
+
+        // Inside it: the last one falls off
+        cache.commentAdded(comment(1));
+        assertEquals(1L, cached(false).get(0).getId());
+        assertEquals(PostReadCache.COMMENT_HEAD_SIZE, ids(cached(false)).get(full.length - 1));
+    }
+
+    @Test
+    void commentForUncachedPost_ShouldNotCreateEntry() {
+        cache.commentAdded(comment(7));
+
+        List<CommentResponse> loaded = cache.getCommentHead(1L, false, () -> head(7));
+        assertEquals(1, loaded.size());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.molsys.example2.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PostSearchIndexTest {
+
+    private PostSearchIndex builtIndex() {
+        PostSearchIndex index = new PostSearchIndex();
+        index.index(1, "Spring Boot tips", "Configuring datasources in Spring");
+        index.index(2, "Cooking pasta", "Boil water, add salt");
+        index.index(3, "Hello world", "My first post about springtime gardening");
+        index.completeBuild();
+        return index;
+    }
+
+    @Test
+    void search_ShouldRankTitleMatchesAboveContentAndSubstringMatches() {
+        long[] ids = builtIndex().search("spring", 10);
+
+        assertArrayEquals(new long[]{1, 3}, ids);
+    }
+
+    @Test
+    void search_ShouldMatchSubstringsLikeTheOldQuery() {
+        assertArrayEquals(new long[]{2}, builtIndex().search("PAST", 10));
+    }
+
+    @Test
+    void search_WithWordShorterThanATrigram_ShouldStillMatchSubstrings() {
+        PostSearchIndex index = new PostSearchIndex();
+        index.index(1, "Going home", "");
+        index.index(2, "She said so", "");
+        index.index(3, "Cooking", "");
+        index.index(4, "Go", "");
+        index.completeBuild();
+
+        // The exact word ranks first, then the posts containing it
+        assertArrayEquals(new long[]{4, 1}, index.search("go", 10));
+        assertArrayEquals(new long[]{2}, index.search("ai", 10));
+    }
+
+    @Test
+    void search_WithWordShorterThanATrigram_ShouldStopAtThePostingsBudget() {
+        PostSearchIndex index = new PostSearchIndex();
+        int posts = PostSearchIndex.SHORT_WORD_MAX_POSTINGS + 1000;
+        // Every post has its own word containing "e"
+        for (int i = 0; i < posts; i++) {
+            index.index(i, "e" + Integer.toString(i, 36), "");
+        }
+        index.completeBuild();
+
+        assertEquals(PostSearchIndex.SHORT_WORD_MAX_POSTINGS, index.search("e", posts).length);
+        // Longer words still go through the trigram index
+        assertEquals(1, index.search("e" + Integer.toString(posts - 1, 36), posts).length);
+    }
+
+    @Test
+    void search_WithSeveralTerms_ShouldPreferPostsMatchingMoreOfThem() {
+        PostSearchIndex index = new PostSearchIndex();
+        index.index(1, "alpha", "");
+        index.index(2, "beta", "");
+        index.index(3, "alpha beta", "");
+        index.index(4, "gamma", "");
+        index.completeBuild();
+
+        long[] ids = index.search("alpha beta", 10);
+
+        assertEquals(3, ids.length);
+        assertEquals(3, ids[0]);
+    }
+
+    @Test
+    void search_ShouldRespectLimit() {
+        assertEquals(1, builtIndex().search("spring", 1).length);
+    }
+
+    @Test
+    void postsCreatedDuringBuild_ShouldBeMergedOnceWithoutDuplicates() {
+        PostSearchIndex index = new PostSearchIndex();
+        index.index(1, "first", "");
+        index.addLive(1, "first", "");
+        index.addLive(2, "second", "");
+        assertFalse(index.isReady());
+
+        index.completeBuild();
+
+        assertEquals(2, index.size());
+        assertArrayEquals(new long[]{2}, index.search("second", 10));
+        index.addLive(3, "third", "");
+        assertArrayEquals(new long[]{3}, index.search("third", 10));
+    }
+}
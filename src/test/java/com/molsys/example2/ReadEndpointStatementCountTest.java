@@ -0,0 +1,214 @@
+package com.molsys.example2;
+
+import com.molsys.example2.Entity.Comment;
+import com.molsys.example2.Entity.Post;
+import com.molsys.example2.Entity.Role;
+import com.molsys.example2.Entity.User;
+import com.molsys.example2.Repository.CommentRepository;
+import com.molsys.example2.Repository.PostRepository;
+import com.molsys.example2.Repository.UserRepository;
+import com.molsys.example2.search.PostSearchIndex;
+import com.molsys.example2.security.JwtService;
+import com.molsys.example2.service.CommentService;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReadEndpointStatementCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private PostSearchIndex searchIndex;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String bearer;
+    private Long postId;
+    private final List<Long> postIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        commentRepository.deleteAll();
+        postRepository.deleteAll();
+        userRepository.deleteAll();
+        postIds.clear();
+
+        User author = userRepository.save(User.builder()
+                .email("author@example.com").name("Author").password("x").role(Role.USER).build());
+        for (int i = 0; i < 10; i++) {
+            Post post = postRepository.save(Post.builder()
+                    .title("statement counting " + i).content("content " + i).user(author).build());
+            searchIndex.addLive(post.getId(), post.getTitle(), post.getContent());
+            postId = post.getId();
+            postIds.add(postId);
+            List<Comment> comments = new ArrayList<>();
+            for (int c = 0; c < 3; c++) {
+                comments.add(Comment.builder().message("comment " + c).post(post).user(author).build());
+            }
+            // Through the service so the comment counters see them
+            commentService.addComments(comments);
+        }
+        // Posts without an author must still be listed
+        postRepository.save(Post.builder().title("orphan").content("no author").build());
+
+        bearer = "Bearer " + jwtService.generateAccessToken(author.getId(), Role.USER);
+        // Warm the principal cache so only the endpoint's own queries are counted
+        mockMvc.perform(get("/api/posts").header("Authorization", bearer)).andExpect(status().isOk());
+        while (!searchIndex.isReady()) {
+            Thread.sleep(10);
+        }
+    }
+
+    private long statementsFor(String url) throws Exception {
+        statistics.clear();
+        mockMvc.perform(get(url).header("Authorization", bearer)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Test
+    void listPosts_ShouldRunOneStatementAndLoadNoEntities() throws Exception {
+        mockMvc.perform(get("/api/posts").header("Authorization", bearer))
+                .andExpect(jsonPath("$.items.length()").value(11))
+                .andExpect(jsonPath("$.items[0].commentCount").value(0))
+                .andExpect(jsonPath("$.items[1].commentCount").value(3));
+
+        assertEquals(1, statementsFor("/api/posts?size=5"));
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void listComments_ShouldRunOneStatementThenServeFromCache() throws Exception {
+        assertEquals(1, statementsFor("/api/comments/post/" + postId));
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        assertEquals(0, statementsFor("/api/comments/post/" + postId));
+        mockMvc.perform(get("/api/comments/post/" + postId).header("Authorization", bearer))
+                .andExpect(jsonPath("$.items.length()").value(3))
+                .andExpect(jsonPath("$.totalCount").value(3));
+    }
+
+    @Test
+    void listComments_ShouldPageInBothDirections() throws Exception {
+        String base = "/api/comments/post/" + postId + "?size=2";
+        for (String order : List.of("oldest", "newest")) {
+            String first = mockMvc.perform(get(base + "&order=" + order).header("Authorization", bearer))
+                    .andExpect(jsonPath("$.items.length()").value(2))
+                    .andExpect(jsonPath("$.items[0].message").value(order.equals("oldest") ? "comment 0" : "comment 2"))
+                    .andExpect(jsonPath("$.totalCount").value(3))
+                    .andReturn().getResponse().getContentAsString();
+            String cursor = JsonPath.read(first, "$.nextCursor");
+
+            // Later pages are a single range scan on (post_id, id)
+            statistics.clear();
+            mockMvc.perform(get(base + "&order=" + order + "&cursor=" + cursor).header("Authorization", bearer))
+                    .andExpect(jsonPath("$.items.length()").value(1))
+                    .andExpect(jsonPath("$.items[0].message").value(order.equals("oldest") ? "comment 2" : "comment 0"))
+                    .andExpect(jsonPath("$.nextCursor").doesNotExist());
+            assertEquals(1, statistics.getPrepareStatementCount());
+        }
+        mockMvc.perform(get("/api/comments/post/999999").header("Authorization", bearer))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void bulkComments_ShouldRunOneStatementAndCapEachPost() throws Exception {
+        String url = "/api/comments/posts?perPost=2&postIds="
+                + postIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+        mockMvc.perform(get(url).header("Authorization", bearer))
+                .andExpect(jsonPath("$.length()").value(10))
+                .andExpect(jsonPath("$['" + postId + "'].length()").value(2))
+                .andExpect(jsonPath("$['" + postId + "'][0].message").value("comment 0"));
+
+        assertEquals(1, statementsFor(url));
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void searchPosts_ShouldRunOneStatementAndLoadNoEntities() throws Exception {
+        assertEquals(1, statementsFor("/api/posts/search?keyword=counting"));
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void unchangedPoll_ShouldAnswer304WithoutQueries() throws Exception {
+        for (String url : List.of("/api/posts", "/api/comments/post/" + postId)) {
+            String etag = mockMvc.perform(get(url).header("Authorization", bearer))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader("ETag");
+            assertNotNull(etag);
+
+            statistics.clear();
+            mockMvc.perform(get(url).header("Authorization", bearer).header("If-None-Match", etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(content().string(""));
+            assertEquals(0, statistics.getPrepareStatementCount());
+        }
+    }
+
+    @Test
+    void changedCollection_ShouldGetNewETag() throws Exception {
+        String postsETag = mockMvc.perform(get("/api/posts").header("Authorization", bearer))
+                .andReturn().getResponse().getHeader("ETag");
+        String commentsETag = mockMvc.perform(get("/api/comments/post/" + postId).header("Authorization", bearer))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(post("/api/posts").header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"new\",\"content\":\"post\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/comments").header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"message\":\"new\",\"post\":{\"id\":" + postId + "}}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/posts").header("Authorization", bearer).header("If-None-Match", postsETag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].title").value("new"));
+        mockMvc.perform(get("/api/comments/post/" + postId).header("Authorization", bearer).header("If-None-Match", commentsETag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(4))
+                .andExpect(jsonPath("$.totalCount").value(4));
+    }
+}
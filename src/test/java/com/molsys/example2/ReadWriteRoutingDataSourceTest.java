@@ -0,0 +1,149 @@
+package com.molsys.example2.config;
+
+import com.molsys.example2.security.UserPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Routing between two embedded databases, each of which names itself in a one-row table.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private EmbeddedDatabase primary;
+    private EmbeddedDatabase replica;
+    private FailingDataSource replicaConnections;
+    private RecentWriters recentWriters;
+    private ReadWriteRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        replicaConnections = new FailingDataSource(replica);
+        recentWriters = new RecentWriters(Duration.ofMinutes(1));
+        routing = new ReadWriteRoutingDataSource(primary, List.of(replicaConnections),
+                recentWriters, Duration.ofSeconds(1));
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbc = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        primary.shutdown();
+        replica.shutdown();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplicaAndWritesThePrimary() {
+        assertEquals("replica", readNode(readOnly));
+        assertEquals("primary", readNode(readWrite));
+        // Outside any transaction there is no read-only flag to route on
+        assertEquals("primary", jdbc.queryForObject("select name from node", String.class));
+    }
+
+    @Test
+    void userWhoJustWroteReadsFromThePrimary() {
+        signIn(1L);
+        readWrite.executeWithoutResult(status -> {
+            jdbc.update("update node set name = name");
+            recentWriters.wrote(1L);
+        });
+        assertEquals("primary", readNode(readOnly));
+
+        signIn(2L);
+        assertEquals("replica", readNode(readOnly));
+    }
+
+    @Test
+    void rolledBackWriteDoesNotDivertReads() {
+        signIn(1L);
+        readWrite.executeWithoutResult(status -> {
+            jdbc.update("update node set name = name");
+            recentWriters.wrote(1L);
+            status.setRollbackOnly();
+        });
+        assertEquals("replica", readNode(readOnly));
+    }
+
+    @Test
+    void readOnThePrimaryDoesNotDivertTheUsersNextReads() {
+        signIn(1L);
+        // A cache miss loads through a read-write transaction to get the primary's view
+        assertEquals("primary", readNode(readWrite));
+        assertEquals("replica", readNode(readOnly));
+    }
+
+    @Test
+    void failedReplicaFallsBackToThePrimaryUntilItPassesAHealthCheck() {
+        replicaConnections.down = true;
+        assertEquals("primary", readNode(readOnly));
+
+        // Still out of rotation after it recovers, until probed
+        replicaConnections.down = false;
+        assertEquals("primary", readNode(readOnly));
+
+        routing.probeReplicas();
+        assertEquals("replica", readNode(readOnly));
+    }
+
+    private String readNode(TransactionTemplate transaction) {
+        return transaction.execute(status -> jdbc.queryForObject("select name from node", String.class));
+    }
+
+    private static void signIn(Long userId) {
+        UserPrincipal principal = new UserPrincipal(userId, "user" + userId + "@example.com", "USER");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of()));
+    }
+
+    private static EmbeddedDatabase database(String name) {
+        EmbeddedDatabase database = new EmbeddedDatabaseBuilder()
+                .setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        new JdbcTemplate(database).execute("create table node (name varchar(16))");
+        new JdbcTemplate(database).update("insert into node values (?)", name);
+        return database;
+    }
+
+    private static final class FailingDataSource extends DelegatingDataSource {
+        volatile boolean down;
+
+        FailingDataSource(EmbeddedDatabase target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down) {
+                throw new SQLException("Connection refused");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.molsys.example2.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final AsyncCache<Long, String> cache = Caffeine.newBuilder()
+            .recordStats()
+            .buildAsync();
+
+    @Test
+    void concurrentCallersForOneKey_ShouldShareASingleLoad() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() ->
+                SingleFlight.getOrLoad(cache, 1L, key -> {
+                    loads.incrementAndGet();
+                    loading.countDown();
+                    await(release);
+                    return "one";
+                }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() ->
+                SingleFlight.getOrLoad(cache, 1L, key -> fail("should wait for the pending load")));
+        release.countDown();
+
+        assertEquals("one", first.get(5, TimeUnit.SECONDS));
+        assertEquals("one", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        // Recorded once, by the cache, when the shared future completes
+        assertEquals(1, cache.synchronous().stats().loadSuccessCount());
+    }
+
+    @Test
+    void nullAndFailedLoads_ShouldNotBeCached() {
+        assertNull(SingleFlight.getOrLoad(cache, 1L, key -> null));
+        assertThrows(IllegalStateException.class, () -> SingleFlight.getOrLoad(cache, 2L, key -> {
+            throw new IllegalStateException("database down");
+        }));
+
+        assertEquals("one", SingleFlight.getOrLoad(cache, 1L, key -> "one"));
+        assertEquals("two", SingleFlight.getOrLoad(cache, 2L, key -> "two"));
+        // Caffeine counts the null result as a failed load
+        CacheStats stats = cache.synchronous().stats();
+        assertEquals(2, stats.loadSuccessCount());
+        assertEquals(2, stats.loadFailureCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
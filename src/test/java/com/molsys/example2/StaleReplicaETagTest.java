@@ -0,0 +1,144 @@
+package com.molsys.example2.controller;
+
+import com.molsys.example2.Entity.Comment;
+import com.molsys.example2.Entity.Post;
+import com.molsys.example2.Entity.Role;
+import com.molsys.example2.Entity.User;
+import com.molsys.example2.Repository.CommentRepository;
+import com.molsys.example2.Repository.PostRepository;
+import com.molsys.example2.Repository.RefreshSessionRepository;
+import com.molsys.example2.Repository.UserRepository;
+import com.molsys.example2.dto.CursorPage;
+import com.molsys.example2.security.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Routing on, with a replica that is a snapshot of the primary taken before the writes under
+ * test, i.e. a replica lagging behind them. A page served under a new ETag must include those
+ * writes, or clients would revalidate the stale page with 304s until the next write.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stale-primary;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+        "app.datasource.routing.enabled=true",
+        "app.datasource.routing.replica-urls=" + StaleReplicaETagTest.REPLICA_URL
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StaleReplicaETagTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:stale-replica;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private RefreshSessionRepository sessionRepository;
+
+    // Outside a transaction this goes to the primary
+    @Autowired
+    private JdbcTemplate primary;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    private String authorBearer;
+    private String readerBearer;
+    private Post post;
+    private Comment firstComment;
+
+    @BeforeEach
+    void setUp() {
+        commentRepository.deleteAll();
+        postRepository.deleteAll();
+        sessionRepository.deleteAll();
+        userRepository.deleteAll();
+
+        User author = userRepository.save(User.builder()
+                .email("author@example.com").name("Author").password("x").role(Role.USER).build());
+        User reader = userRepository.save(User.builder()
+                .email("reader@example.com").name("Reader").password("x").role(Role.USER).build());
+        post = postRepository.save(Post.builder().title("before the snapshot").content("old").user(author).build());
+        firstComment = commentRepository.save(Comment.builder().message("first").post(post).user(author).build());
+        authorBearer = "Bearer " + jwtService.generateAccessToken(author.getId(), Role.USER);
+        readerBearer = "Bearer " + jwtService.generateAccessToken(reader.getId(), Role.USER);
+
+        snapshotPrimaryToReplica();
+    }
+
+    @Test
+    void postListUnderANewETag_ShouldIncludePostsTheReplicaHasNotSeen() throws Exception {
+        String etag = read("/api/posts").getResponse().getHeader("ETag");
+
+        mockMvc.perform(post("/api/posts").header("Authorization", authorBearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"after the snapshot\",\"content\":\"new\"}"))
+                .andExpect(status().isOk());
+
+        MvcResult page = read("/api/posts", etag);
+        assertNotEquals(etag, page.getResponse().getHeader("ETag"));
+        assertTrue(page.getResponse().getContentAsString().contains("after the snapshot"));
+    }
+
+    @Test
+    void commentCursorPageUnderANewETag_ShouldIncludeCommentsTheReplicaHasNotSeen() throws Exception {
+        String url = "/api/comments/post/" + post.getId() + "?cursor=" + CursorPage.encodeCursor(firstComment.getId());
+        String etag = read(url).getResponse().getHeader("ETag");
+
+        mockMvc.perform(post("/api/comments").header("Authorization", authorBearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"message\":\"after the snapshot\",\"post\":{\"id\":" + post.getId() + "}}"))
+                .andExpect(status().isOk());
+
+        MvcResult page = read(url, etag);
+        assertNotEquals(etag, page.getResponse().getHeader("ETag"));
+        assertTrue(page.getResponse().getContentAsString().contains("after the snapshot"));
+    }
+
+    private MvcResult read(String url) throws Exception {
+        return mockMvc.perform(get(url).header("Authorization", readerBearer))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private MvcResult read(String url, String ifNoneMatch) throws Exception {
+        return mockMvc.perform(get(url).header("Authorization", readerBearer).header("If-None-Match", ifNoneMatch))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    // The replica gets the primary's current schema and rows, and nothing written afterwards
+    private void snapshotPrimaryToReplica() {
+        List<String> script = primary.queryForList("script", String.class);
+        replica.execute("drop all objects");
+        script.forEach(replica::execute);
+        assertEquals(1, replica.queryForObject("select count(*) from post", Integer.class));
+    }
+}
@@ -0,0 +1,93 @@
+package com.molsys.example2.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketRateLimiterStressTest {
+
+    private static final int THREADS = 8;
+
+    // One token a minute: nothing refills while a test runs, so exactly the burst is admitted
+    private static final int PER_MINUTE = 1;
+
+    @Test
+    void contendedSingleKey_ShouldAdmitExactlyTheBurst() throws Exception {
+        int burst = 50;
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(burst, PER_MINUTE, 1000);
+        LongAdder allowed = new LongAdder();
+
+        runConcurrently(20_000, i -> {
+            if (limiter.tryAcquire("203.0.113.7") == 0) {
+                allowed.increment();
+            }
+        });
+
+        assertEquals(burst, allowed.sum());
+    }
+
+    @Test
+    void contendedManyKeys_ShouldAdmitExactlyTheBurstPerKey() throws Exception {
+        int burst = 5;
+        int keyCount = 1000;
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(burst, PER_MINUTE, keyCount);
+        LongAdder allowed = new LongAdder();
+
+        // Every thread walks all keys several times, so each key is hit by all threads at once
+        runConcurrently(keyCount * 10, i -> {
+            if (limiter.tryAcquire("10.0." + (i % keyCount)) == 0) {
+                allowed.increment();
+            }
+        });
+
+        assertEquals((long) burst * keyCount, allowed.sum());
+    }
+
+    @Test
+    void manyKeys_ShouldStayBounded() throws Exception {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(20, 30, 10_000);
+        String[] keys = new String[50_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "10.0." + (i >> 8) + "." + (i & 0xff);
+        }
+
+        runConcurrently(50_000, i -> limiter.tryAcquire(keys[i % keys.length]));
+
+        limiter.tryAcquire("flush");
+        assertTrue(limiter.trackedKeys() <= 10_000 * 1.1, "tracked keys exceed bound: " + limiter.trackedKeys());
+    }
+
+    private interface Op {
+        void run(int i);
+    }
+
+    private void runConcurrently(int opsPerThread, Op op) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch go = new CountDownLatch(1);
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                int offset = t * opsPerThread;
+                pool.submit(() -> {
+                    ready.countDown();
+                    go.await();
+                    for (int i = 0; i < opsPerThread; i++) {
+                        op.run(offset + i);
+                    }
+                    return null;
+                });
+            }
+            ready.await();
+            go.countDown();
+        } finally {
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(60, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.molsys.example2.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.molsys.example2.Entity.Role;
+import com.molsys.example2.Entity.User;
+import com.molsys.example2.Repository.CommentRepository;
+import com.molsys.example2.Repository.PostRepository;
+import com.molsys.example2.Repository.RefreshSessionRepository;
+import com.molsys.example2.Repository.UserRepository;
+import com.molsys.example2.dto.AuthRequest;
+import com.molsys.example2.dto.BulkProvisioningResponse;
+import com.molsys.example2.security.BoundedPasswordEncoder;
+import com.molsys.example2.security.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserProvisioningTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private RefreshSessionRepository sessionRepository;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+
+    private String adminBearer;
+
+    @BeforeEach
+    void setUp() {
+        commentRepository.deleteAll();
+        postRepository.deleteAll();
+        sessionRepository.deleteAll();
+        userRepository.deleteAll();
+        User admin = userRepository.save(User.builder()
+                .email("admin@example.com").name("Admin").password("x").role(Role.ADMIN).build());
+        adminBearer = "Bearer " + jwtService.generateAccessToken(admin.getId(), Role.ADMIN);
+    }
+
+    @Test
+    void bulkImport_ShouldSkipDuplicatesInStreamAndDatabase() throws Exception {
+        userRepository.save(User.builder().email("existing@example.com").name("Old").password("x").role(Role.USER).build());
+        String ndjson = String.join("\n",
+                "{\"email\":\"a@example.com\",\"password\":\"pw-a\"}",
+                "{\"email\":\"a@example.com\",\"password\":\"pw-a-again\"}",
+                "{\"email\":\"existing@example.com\",\"password\":\"pw\"}",
+                "not json",
+                "",
+                "{\"email\":\"b@example.com\",\"password\":\"pw-b\",\"name\":\"Bee\",\"role\":\"ADMIN\"}");
+
+        mockMvc.perform(post("/api/admin/users/bulk").header("Authorization", adminBearer)
+                        .contentType("application/x-ndjson").content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(5))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.skippedExisting").value(2))
+                .andExpect(jsonPath("$.invalid").value(1));
+
+        User b = userRepository.findByEmail("b@example.com").orElseThrow();
+        assertEquals("Bee", b.getName());
+        assertEquals(Role.ADMIN, b.getRole());
+        assertTrue(passwordEncoder.matches("pw-b", b.getPassword()));
+        assertTrue(passwordEncoder.matches("pw-a", userRepository.findByEmail("a@example.com").orElseThrow().getPassword()));
+        assertEquals("Old", userRepository.findByEmail("existing@example.com").orElseThrow().getName());
+    }
+
+    @Test
+    void bulkImport_WhenBatchHitsConcurrentRegistration_ShouldFallBackRowByRow() throws Exception {
+        JdbcTemplate racingJdbc = spy(jdbcTemplate);
+        TransactionTemplate otherRequest = new TransactionTemplate(transactionManager);
+        otherRequest.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Another request registers one of the emails between the existence check and the batch
+        doAnswer(invocation -> {
+            otherRequest.executeWithoutResult(status -> jdbcTemplate.update(
+                    "insert into user (email, name, password, role) values ('racer@example.com', 'Racer', 'x', 'USER')"));
+            throw new DuplicateKeyException("Duplicate entry 'racer@example.com'");
+        }).when(racingJdbc).batchUpdate(anyString(), anyList());
+        UserProvisioningService service = new UserProvisioningService(objectMapper, racingJdbc, transactionManager,
+                passwordEncoder, 1, 500);
+        String ndjson = String.join("\n",
+                "{\"email\":\"first@example.com\",\"password\":\"pw\"}",
+                "{\"email\":\"racer@example.com\",\"password\":\"pw\"}",
+                "{\"email\":\"last@example.com\",\"password\":\"pw\"}");
+
+        try {
+            BulkProvisioningResponse response = service.provision(
+                    new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+            assertEquals(new BulkProvisioningResponse(3, 2, 1, 0), response);
+            assertTrue(userRepository.findByEmail("first@example.com").isPresent());
+            assertTrue(userRepository.findByEmail("last@example.com").isPresent());
+            assertEquals("Racer", userRepository.findByEmail("racer@example.com").orElseThrow().getName());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void register_WithTakenEmail_ShouldFailWithExistingMessage() {
+        authService.register(registration("taken@example.com"));
+
+        RuntimeException e = assertThrows(RuntimeException.class,
+                () -> authService.register(registration("taken@example.com")));
+
+        assertEquals("User already exists", e.getMessage());
+        assertFalse(e instanceof DataAccessException);
+        assertEquals(List.of("taken@example.com"), userRepository.findAll().stream()
+                .map(User::getEmail).filter("taken@example.com"::equals).toList());
+    }
+
+    @Test
+    void register_WithOverlongEmail_ShouldNotReportADuplicate() {
+        String email = "x".repeat(300) + "@example.com";
+
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+                () -> authService.register(registration(email)));
+
+        assertNotEquals("User already exists", e.getMessage());
+        assertFalse(userRepository.existsByEmail(email));
+    }
+
+    private static AuthRequest registration(String email) {
+        AuthRequest request = new AuthRequest();
+        request.setEmail(email);
+        request.setPassword("secret");
+        return request;
+    }
+}
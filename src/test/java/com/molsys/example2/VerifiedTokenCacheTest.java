@@ -0,0 +1,58 @@
+package com.molsys.example2.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    @Test
+    void repeatedToken_ShouldBeVerifiedOnce() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        AtomicInteger verifications = new AtomicInteger();
+
+        for (int i = 0; i < 5; i++) {
+            VerifiedTokenCache.VerifiedToken verified = cache.getOrVerify("token", t -> {
+                verifications.incrementAndGet();
+                return new VerifiedTokenCache.VerifiedToken(1L, "USER", Instant.now().plusSeconds(60));
+            });
+            assertEquals(1L, verified.userId());
+        }
+
+        assertEquals(1, verifications.get());
+        assertEquals(4, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void expiredToken_ShouldNotBeServedFromCache() throws InterruptedException {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        AtomicInteger verifications = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            cache.getOrVerify("token", t -> {
+                verifications.incrementAndGet();
+                return new VerifiedTokenCache.VerifiedToken(1L, "USER", Instant.now().plusMillis(50));
+            });
+            Thread.sleep(100);
+        }
+
+        assertEquals(2, verifications.get());
+    }
+
+    @Test
+    void failedVerification_ShouldNotBeCached() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+
+        assertThrows(IllegalStateException.class, () -> cache.getOrVerify("bad", t -> {
+            throw new IllegalStateException("invalid signature");
+        }));
+        VerifiedTokenCache.VerifiedToken verified = cache.getOrVerify("bad",
+                t -> new VerifiedTokenCache.VerifiedToken(2L, "ADMIN", Instant.now().plusSeconds(60)));
+
+        assertEquals(2L, verified.userId());
+    }
+}